@@ -0,0 +1,14 @@
+package com.kafka.librarynerdysoft.catalog;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+// Read-only WebFlux + R2DBC view of the library database. Writes and the schema stay with the main application.
+@SpringBootApplication
+public class CatalogReaderApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(CatalogReaderApplication.class, args);
+    }
+
+}
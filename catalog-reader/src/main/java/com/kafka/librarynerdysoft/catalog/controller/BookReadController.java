@@ -0,0 +1,44 @@
+package com.kafka.librarynerdysoft.catalog.controller;
+
+import com.kafka.librarynerdysoft.catalog.dto.CursorPage;
+import com.kafka.librarynerdysoft.catalog.model.BookView;
+import com.kafka.librarynerdysoft.catalog.service.CatalogReadService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/books")
+@AllArgsConstructor
+public class BookReadController {
+
+    private final CatalogReadService catalogReadService;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<CursorPage<BookView>> getAllBooks(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit
+    ) {
+        return catalogReadService.getBooks(after, limit);
+    }
+
+    // whole catalog, one book per line, written as fast as the client reads it
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookView> streamAllBooks() {
+        return catalogReadService.streamBooks();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<BookView>> getBookById(@PathVariable("id") Long id) {
+        return catalogReadService.getBookById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
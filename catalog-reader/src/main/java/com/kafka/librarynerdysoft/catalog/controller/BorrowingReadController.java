@@ -0,0 +1,52 @@
+package com.kafka.librarynerdysoft.catalog.controller;
+
+import com.kafka.librarynerdysoft.catalog.model.BookView;
+import com.kafka.librarynerdysoft.catalog.service.CatalogReadService;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+// The GET endpoints of the main application's BorrowingController. Lists are written as they are read;
+// ask for application/x-ndjson to get one book per line instead of a JSON array.
+@RestController
+@RequestMapping("/borrow")
+@AllArgsConstructor
+public class BorrowingReadController {
+
+    private final CatalogReadService catalogReadService;
+
+    @GetMapping("/books/member/{memberName}")
+    public Flux<BookView> getBooksBorrowedByMember(@PathVariable String memberName) {
+        return catalogReadService.getBooksBorrowedByMemberName(memberName);
+    }
+
+    @GetMapping("/books/member/id/{memberId}")
+    public Flux<BookView> getBooksBorrowedByMemberId(@PathVariable Long memberId) {
+        return catalogReadService.getBooksBorrowedByMemberId(memberId);
+    }
+
+    @GetMapping("/books/distinct-names")
+    public Mono<List<String>> getDistinctBorrowedBookNames(
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(required = false) @Positive Integer size
+    ) {
+        return catalogReadService.getDistinctBorrowedBookTitles(page, size);
+    }
+
+    @GetMapping("/books/distinct-names-with-count")
+    public Mono<Map<String, Long>> getDistinctBorrowedBookNamesWithCount(
+            @RequestParam(required = false) @Positive Integer top
+    ) {
+        return catalogReadService.getBookTitleToBorrowCount(top);
+    }
+}
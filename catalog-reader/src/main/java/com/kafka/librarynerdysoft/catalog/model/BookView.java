@@ -0,0 +1,29 @@
+package com.kafka.librarynerdysoft.catalog.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+// a book row as the main application's BookResponse serializes it; keep the two in step
+@Table("book")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookView {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private int amount;
+
+    // free book_copy rows with copy-level inventory, otherwise the amount, as in the main application
+    private int availableCopies;
+
+    private long version;
+}
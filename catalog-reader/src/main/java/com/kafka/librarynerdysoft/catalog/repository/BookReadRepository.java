@@ -0,0 +1,29 @@
+package com.kafka.librarynerdysoft.catalog.repository;
+
+import com.kafka.librarynerdysoft.catalog.model.BookView;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// read-only on purpose: no save/delete is inherited
+public interface BookReadRepository extends Repository<BookView, Long> {
+
+    // copy rows are only counted with copy-level inventory, see library.inventory.copy-level
+    String SELECT_BOOK = "select b.id, b.title, b.author, b.amount, case when :copyLevel then " +
+            "(select count(*) from book_copy c where c.book_id = b.id and c.available = true) " +
+            "else b.amount end as available_copies, b.version from book b ";
+
+    @Query(SELECT_BOOK + "where b.id = :id")
+    Mono<BookView> findById(Long id, boolean copyLevel);
+
+    @Query(SELECT_BOOK + "where b.id > :after order by b.id limit :limit")
+    Flux<BookView> findPage(long after, int limit, boolean copyLevel);
+
+    @Query(SELECT_BOOK + "join borrowing br on br.book_id = b.id where br.member_id = :memberId order by br.id")
+    Flux<BookView> findBorrowedByMemberId(Long memberId, boolean copyLevel);
+
+    @Query(SELECT_BOOK + "join borrowing br on br.book_id = b.id join member m on m.id = br.member_id " +
+            "where m.name = :name order by br.id")
+    Flux<BookView> findBorrowedByMemberName(String name, boolean copyLevel);
+}
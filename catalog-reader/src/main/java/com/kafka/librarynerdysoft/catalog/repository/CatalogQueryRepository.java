@@ -0,0 +1,72 @@
+package com.kafka.librarynerdysoft.catalog.repository;
+
+import com.kafka.librarynerdysoft.catalog.model.BookView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Statements the derived/@Query methods can't express: fetch-size streaming and optional limits.
+@Repository
+public class CatalogQueryRepository {
+
+    private final R2dbcEntityTemplate template;
+    private final DatabaseClient databaseClient;
+    private final int streamFetchSize;
+
+    public CatalogQueryRepository(R2dbcEntityTemplate template,
+                                  @Value("${library.catalog.stream-fetch-size:500}") int streamFetchSize) {
+        this.template = template;
+        this.databaseClient = template.getDatabaseClient();
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    // the driver pulls streamFetchSize rows per round trip and only when the subscriber asks for more,
+    // so a slow reader holds back the query instead of buffering the whole table
+    public Flux<BookView> streamBooks(boolean copyLevel) {
+        return databaseClient.sql(BookReadRepository.SELECT_BOOK + "order by b.id")
+                .bind("copyLevel", copyLevel)
+                .filter(statement -> statement.fetchSize(streamFetchSize))
+                .map((row, metadata) -> template.getConverter().read(BookView.class, row, metadata))
+                .all();
+    }
+
+    public Mono<Boolean> existsMemberById(Long id) {
+        return databaseClient.sql("select count(*) from member where id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class) > 0)
+                .one();
+    }
+
+    public Mono<Boolean> existsMemberByName(String name) {
+        return databaseClient.sql("select count(*) from member where name = :name")
+                .bind("name", name)
+                .map(row -> row.get(0, Long.class) > 0)
+                .one();
+    }
+
+    // sorted titles; all of them when size is null
+    public Flux<String> findDistinctBorrowedTitles(int page, Integer size) {
+        String sql = "select distinct bk.title from borrowing b join book bk on bk.id = b.book_id order by bk.title";
+        DatabaseClient.GenericExecuteSpec spec = size == null
+                ? databaseClient.sql(sql)
+                : databaseClient.sql(sql + " limit :limit offset :offset")
+                        .bind("limit", size)
+                        .bind("offset", (long) page * size);
+        return spec.map(row -> row.get(0, String.class)).all();
+    }
+
+    // most borrowed titles first; all titles when top is null
+    public Flux<Map.Entry<String, Long>> countBorrowingsByTitle(Integer top) {
+        String sql = "select bk.title, count(*) as borrow_count from borrowing b join book bk on bk.id = b.book_id " +
+                "group by bk.title order by borrow_count desc, bk.title";
+        DatabaseClient.GenericExecuteSpec spec = top == null
+                ? databaseClient.sql(sql)
+                : databaseClient.sql(sql + " limit :limit").bind("limit", top);
+        return spec.map(row -> Map.entry(row.get(0, String.class), row.get(1, Long.class))).all();
+    }
+}
@@ -0,0 +1,71 @@
+package com.kafka.librarynerdysoft.catalog.service;
+
+import com.kafka.librarynerdysoft.catalog.dto.CursorPage;
+import com.kafka.librarynerdysoft.catalog.model.BookView;
+import com.kafka.librarynerdysoft.catalog.repository.BookReadRepository;
+import com.kafka.librarynerdysoft.catalog.repository.CatalogQueryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CatalogReadService {
+
+    private final BookReadRepository bookReadRepository;
+    private final CatalogQueryRepository catalogQueryRepository;
+
+    // must match the main application's setting
+    @Value("${library.inventory.copy-level:false}")
+    private boolean copyLevelInventory;
+
+    public Mono<CursorPage<BookView>> getBooks(Long after, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        return bookReadRepository.findPage(after == null ? 0L : after, pageSize + 1, copyLevelInventory)
+                .collectList()
+                .map(rows -> CursorPage.of(rows, pageSize, BookView::getId));
+    }
+
+    public Flux<BookView> streamBooks() {
+        return catalogQueryRepository.streamBooks(copyLevelInventory);
+    }
+
+    public Mono<BookView> getBookById(Long id) {
+        return bookReadRepository.findById(id, copyLevelInventory);
+    }
+
+    public Flux<BookView> getBooksBorrowedByMemberName(String name) {
+        // the member lookup is only needed to tell "no loans" from "no such member"
+        return bookReadRepository.findBorrowedByMemberName(name, copyLevelInventory)
+                .switchIfEmpty(memberMustExist(catalogQueryRepository.existsMemberByName(name)));
+    }
+
+    public Flux<BookView> getBooksBorrowedByMemberId(Long memberId) {
+        return bookReadRepository.findBorrowedByMemberId(memberId, copyLevelInventory)
+                .switchIfEmpty(memberMustExist(catalogQueryRepository.existsMemberById(memberId)));
+    }
+
+    // collected, since a Flux<String> would be written as bare concatenated text rather than a JSON array
+    public Mono<List<String>> getDistinctBorrowedBookTitles(int page, Integer size) {
+        return catalogQueryRepository.findDistinctBorrowedTitles(page, size).collectList();
+    }
+
+    public Mono<Map<String, Long>> getBookTitleToBorrowCount(Integer top) {
+        return catalogQueryRepository.countBorrowingsByTitle(top)
+                .collect(LinkedHashMap::new, (map, entry) -> map.put(entry.getKey(), entry.getValue()));
+    }
+
+    private static Flux<BookView> memberMustExist(Mono<Boolean> exists) {
+        return exists.flatMapMany(found -> found
+                ? Flux.empty()
+                : Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Member Not Found")));
+    }
+}
@@ -0,0 +1,146 @@
+package com.kafka.librarynerdysoft.catalog;
+
+import com.kafka.librarynerdysoft.catalog.model.BookView;
+import com.kafka.librarynerdysoft.catalog.service.CatalogReadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+@ActiveProfiles("test")
+@DisplayName("Catalog reader Tests")
+class CatalogReaderTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private CatalogReadService catalogReadService;
+
+    @BeforeEach
+    void setUp() {
+        execute(
+                "insert into book (id, title, author, amount) values " +
+                        "(1, 'Dune', 'Frank Herbert', 2), (2, 'Emma', 'Jane Austen', 1), (3, 'Ulysses', 'James Joyce', 0)",
+                "insert into book_copy (id, book_id, available) values (1, 1, true), (2, 1, false)",
+                "insert into member (id, name, member_date) values (1, 'Reader', now()), (2, 'Idle Reader', now())",
+                "insert into borrowing (id, member_id, book_id) values (1, 1, 3), (2, 1, 1)"
+        );
+    }
+
+    @AfterEach
+    void cleanUp() {
+        execute("delete from borrowing", "delete from book_copy", "delete from member", "delete from book");
+    }
+
+    @Test
+    @DisplayName("Should page books by id and look single books up")
+    void shouldPageAndFindBooks() {
+        // When & Then
+        webTestClient.get().uri("/books?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[*].id").isEqualTo(List.of(1, 2))
+                .jsonPath("$.items[0].availableCopies").isEqualTo(2)
+                .jsonPath("$.nextCursor").isEqualTo(2);
+        webTestClient.get().uri("/books?after=2").exchange()
+                .expectBody()
+                .jsonPath("$.items[*].title").isEqualTo(List.of("Ulysses"))
+                .jsonPath("$.nextCursor").doesNotExist();
+        webTestClient.get().uri("/books/2").exchange()
+                .expectStatus().isOk()
+                .expectBody(BookView.class).isEqualTo(new BookView(2L, "Emma", "Jane Austen", 1, 1, 0));
+        webTestClient.get().uri("/books/99").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should count free copy rows with copy-level inventory")
+    void shouldCountCopiesWithCopyLevelInventory() {
+        // Given
+        ReflectionTestUtils.setField(catalogReadService, "copyLevelInventory", true);
+        try {
+            // When & Then
+            webTestClient.get().uri("/books/1").exchange()
+                    .expectStatus().isOk()
+                    .expectBody(BookView.class).isEqualTo(new BookView(1L, "Dune", "Frank Herbert", 2, 1, 0));
+        } finally {
+            ReflectionTestUtils.setField(catalogReadService, "copyLevelInventory", false);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stream the catalog as NDJSON only as fast as it is consumed")
+    void shouldStreamBooks() {
+        // When
+        Flux<BookView> books = webTestClient.get().uri("/books").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(BookView.class).getResponseBody();
+
+        // Then
+        assertThat(books.map(BookView::getId).collectList().block()).containsExactly(1L, 2L, 3L);
+        StepVerifier.create(catalogReadService.streamBooks(), 1)
+                .expectNextMatches(book -> book.getId() == 1L)
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should list a member's loans and tell missing members from idle ones")
+    void shouldListMemberLoans() {
+        // When & Then
+        webTestClient.get().uri("/borrow/books/member/id/1").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[*].id").isEqualTo(List.of(3, 1));
+        webTestClient.get().uri("/borrow/books/member/Reader").exchange()
+                .expectBody().jsonPath("$[*].title").isEqualTo(List.of("Ulysses", "Dune"));
+        webTestClient.get().uri("/borrow/books/member/id/2").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[]");
+        webTestClient.get().uri("/borrow/books/member/id/99").exchange().expectStatus().isNotFound();
+        webTestClient.get().uri("/borrow/books/member/Nobody").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should report borrowed titles and their counts")
+    void shouldReportBorrowedTitles() {
+        // Given
+        execute("insert into borrowing (id, member_id, book_id) values (3, 2, 3)");
+
+        // When & Then
+        webTestClient.get().uri("/borrow/books/distinct-names").exchange()
+                .expectBody().json("[\"Dune\",\"Ulysses\"]");
+        webTestClient.get().uri("/borrow/books/distinct-names?page=1&size=1").exchange()
+                .expectBody().json("[\"Ulysses\"]");
+        webTestClient.get().uri("/borrow/books/distinct-names-with-count?top=1").exchange()
+                .expectBody().json("{\"Ulysses\":2}", true);
+    }
+
+    // Helper methods
+    private void execute(String... statements) {
+        Flux.fromArray(statements)
+                .concatMap(sql -> databaseClient.sql(sql).fetch().rowsUpdated())
+                .blockLast();
+    }
+}
@@ -0,0 +1,34 @@
+package com.kafka.librarynerdysoft.performance;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Runs LibraryBenchmarks once per thread count in -Djmh.threads (comma separated) and writes each run's
+// results to threads-<n>.json under -Djmh.output. Any other arguments are passed on to JMH.
+public class LibraryBenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Path output = Path.of(System.getProperty("jmh.output", "target/jmh"));
+        Files.createDirectories(output);
+
+        for (String threads : System.getProperty("jmh.threads", "1").split(",")) {
+            int threadCount = Integer.parseInt(threads.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threadCount)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(output.resolve("threads-" + threadCount + ".json").toString());
+            if (commandLine.getIncludes().isEmpty()) {
+                options.include(LibraryBenchmarks.class.getSimpleName());
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.kafka.librarynerdysoft.performance;
+
+import com.kafka.librarynerdysoft.LibraryNerdySoftApplication;
+import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Borrowing;
+import com.kafka.librarynerdysoft.service.BookService;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Service hot paths against the embedded H2 database of the test profile, one fresh JVM and database per
+// data size. Every member starts with LOANS_PER_MEMBER books on loan; run through LibraryBenchmarkRunner.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibraryBenchmarks {
+
+    private static final int LOANS_PER_MEMBER = 5;
+    // enough stock that concurrent borrowers never run a title dry
+    private static final int COPIES_PER_BOOK = 1_000_000;
+
+    // members and books in the database
+    @Param({"1000", "10000"})
+    public int size;
+
+    private ConfigurableApplicationContext context;
+    private BorrowingService borrowingService;
+    private BookService bookService;
+
+    private final AtomicLong nextMember = new AtomicLong();
+    private final AtomicLong nextTitle = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(LibraryNerdySoftApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "--logging.level.root=WARN");
+        LibraryDataSeeder seeder = new LibraryDataSeeder(context.getBean(JdbcTemplate.class), context.getBean(CacheManager.class));
+        seeder.seedBooks(size, COPIES_PER_BOOK);
+        seeder.seedMembers(size);
+        seeder.seedBorrowings(size, LOANS_PER_MEMBER);
+        seeder.restartSequences();
+        borrowingService = context.getBean(BorrowingService.class);
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    // Each benchmark thread borrows as its own member, so threads only contend on the books.
+    @State(Scope.Thread)
+    public static class Borrower {
+        long memberId;
+
+        @Setup(Level.Trial)
+        public void pickMember(LibraryBenchmarks library) {
+            memberId = library.nextMember.incrementAndGet();
+        }
+
+        long randomMemberId(LibraryBenchmarks library) {
+            return ThreadLocalRandom.current().nextLong(1, library.size + 1);
+        }
+
+        // never one of the books the member already has on loan
+        long randomBookId(LibraryBenchmarks library) {
+            return ThreadLocalRandom.current().nextLong(LOANS_PER_MEMBER + 1, library.size + 1);
+        }
+    }
+
+    // a pair, so the loan counters and stock stay where they started
+    @Benchmark
+    public Borrowing borrowAndReturn(Borrower borrower) {
+        long bookId = borrower.randomBookId(this);
+        Borrowing borrowing = borrowingService.borrowBook(bookId, borrower.memberId);
+        borrowingService.returnBook(bookId, borrower.memberId);
+        return borrowing;
+    }
+
+    @Benchmark
+    public List<BookResponse> getBooksBorrowedByMemberName(Borrower borrower) {
+        return borrowingService.getBooksBorrowedByMemberName("Member " + borrower.randomMemberId(this));
+    }
+
+    @Benchmark
+    public Map<String, Long> getBookTitleToBorrowCount() {
+        return borrowingService.getBookTitleToBorrowCount(10);
+    }
+
+    // every call adds a new title
+    @Benchmark
+    public Book createBook() {
+        BookCreatedRequest request = new BookCreatedRequest();
+        request.setTitle("Benchmark Title " + nextTitle.incrementAndGet());
+        request.setAuthor("Benchmark Author");
+        return bookService.createBook(request);
+    }
+}
@@ -0,0 +1,44 @@
+package com.kafka.librarynerdysoft.config;
+
+import com.kafka.librarynerdysoft.service.DatabaseIdempotencyStore;
+import com.kafka.librarynerdysoft.service.IdempotencyStore;
+import com.kafka.librarynerdysoft.service.InMemoryIdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "library.idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore inMemoryIdempotencyStore(@Value("${library.idempotency.max-entries:100000}") long maxEntries,
+                                                     @Value("${library.idempotency.ttl:24h}") Duration ttl,
+                                                     @Value("${library.idempotency.in-flight-ttl:1m}") Duration inFlightTtl) {
+        return new InMemoryIdempotencyStore(maxEntries, ttl, inFlightTtl);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.idempotency.store", havingValue = "database")
+    public IdempotencyStore databaseIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                                     @Value("${library.idempotency.max-entries:100000}") long maxEntries,
+                                                     @Value("${library.idempotency.ttl:24h}") Duration ttl,
+                                                     @Value("${library.idempotency.in-flight-ttl:1m}") Duration inFlightTtl) {
+        return new DatabaseIdempotencyStore(jdbcTemplate, maxEntries, ttl, inFlightTtl);
+    }
+
+    // exact servlet pattern: POST and DELETE /borrow, not the batch or read endpoints below it
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(store, meterRegistry));
+        registration.addUrlPatterns("/borrow");
+        return registration;
+    }
+}
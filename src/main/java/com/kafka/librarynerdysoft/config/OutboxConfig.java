@@ -0,0 +1,26 @@
+package com.kafka.librarynerdysoft.config;
+
+import com.kafka.librarynerdysoft.service.MappedEventLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The event sink behind OutboxPublisher. "file" is the local memory-mapped log, which also serves GET /events;
+// a broker-backed EventSink registers under its own library.outbox.sink value. The file log and its sequence
+// numbers belong to one instance: with several instances each would hold whatever batches it happened to
+// publish, so those deployments need a shared sink.
+@Configuration
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "library.outbox.sink", havingValue = "file", matchIfMissing = true)
+    public MappedEventLog mappedEventLog(@Value("${library.outbox.log-dir:data/events}") Path directory,
+                                         @Value("${library.outbox.segment-size:64MB}") DataSize segmentSize) throws IOException {
+        return new MappedEventLog(directory, segmentSize.toBytes());
+    }
+}
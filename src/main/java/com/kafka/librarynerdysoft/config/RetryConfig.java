@@ -0,0 +1,59 @@
+package com.kafka.librarynerdysoft.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+
+@Configuration
+// ahead of the transaction interceptor (LOWEST_PRECEDENCE), so a retry starts a new transaction
+@EnableRetry(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryConfig {
+
+    // library.retry{operation, outcome}: conflict per failed attempt, then recovered or exhausted per call
+    public static final String RETRIES = "library.retry";
+
+    @Bean
+    public RetryListener retryMetricsListener(MeterRegistry meterRegistry) {
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (throwable instanceof ConcurrencyFailureException) {
+                    count(context, "conflict");
+                }
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (throwable instanceof ConcurrencyFailureException) {
+                    count(context, "exhausted");
+                } else if (throwable == null && context.getRetryCount() > 0) {
+                    count(context, "recovered");
+                }
+            }
+
+            private void count(RetryContext context, String outcome) {
+                meterRegistry.counter(RETRIES, "operation", operation(context), "outcome", outcome).increment();
+            }
+        };
+    }
+
+    // the context is named after the method signature; keep Class.method
+    static String operation(RetryContext context) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        if (name == null) {
+            return "unknown";
+        }
+        String signature = name.toString();
+        int parameters = signature.indexOf('(');
+        String qualified = parameters < 0 ? signature : signature.substring(0, parameters);
+        int method = qualified.lastIndexOf('.');
+        int type = method < 0 ? -1 : qualified.lastIndexOf('.', method - 1);
+        return qualified.substring(type + 1);
+    }
+}
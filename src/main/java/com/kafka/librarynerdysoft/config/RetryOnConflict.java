@@ -0,0 +1,30 @@
+package com.kafka.librarynerdysoft.config;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Re-runs the whole transaction when it loses a concurrency race: a stale @Version, a lock timeout or a
+// deadlock (all ConcurrencyFailureException). Backoff is exponential with jitter, so colliding callers spread out.
+// The retry advice sits outside @Transactional (see RetryConfig), every attempt gets a fresh transaction.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${library.retry.max-attempts:3}",
+        backoff = @Backoff(
+                delayExpression = "${library.retry.delay-ms:20}",
+                maxDelayExpression = "${library.retry.max-delay-ms:200}",
+                multiplier = 2,
+                random = true
+        )
+)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,13 @@
+package com.kafka.librarynerdysoft.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (the hold fulfiller, the outbox publisher) run on Boot's TaskScheduler. That is a single thread by
+// default, but with spring.threads.virtual.enabled every run gets its own virtual thread, so runs can overlap; jobs
+// that must not overlap take a ReentrantLock (never synchronized, which would pin the carrier while the job waits on
+// JDBC).
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
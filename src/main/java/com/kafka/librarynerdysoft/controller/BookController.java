@@ -1,20 +1,28 @@
 package com.kafka.librarynerdysoft.controller;
 
 import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
-import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.dto.BookSearchResult;
+import com.kafka.librarynerdysoft.dto.CursorPage;
+import com.kafka.librarynerdysoft.dto.ImportResult;
+import com.kafka.librarynerdysoft.service.BookImportService;
 import com.kafka.librarynerdysoft.service.BookService;
+import com.kafka.librarynerdysoft.service.CatalogVersions;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.kafka.librarynerdysoft.entity.Book;
-
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/books")
@@ -23,42 +31,74 @@ public class BookController {
 
     private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
-    private final BookRepository bookRepository;
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final CatalogVersions catalogVersions;
 
+    // the tag is read before the page, so a 304 costs one counter read; a write committing in between only
+    // makes the page newer than its tag, and the next revalidation fetches it again
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        return ResponseEntity.ok(bookService.getAllBooks());
+    public ResponseEntity<CursorPage<BookResponse>> getAllBooks(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = catalogVersions.booksTag();
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(bookService.getBooks(after, limit));
     }
 
+    // ranked matches from the in-memory search index; every word of q must match a title or author word prefix
+    @GetMapping("/search")
+    public ResponseEntity<List<BookSearchResult>> searchBooks(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(defaultValue = "20") @Positive @Max(100) int size
+    ) {
+        return ResponseEntity.ok(bookService.searchBooks(q, page, size));
+    }
+
+    // the tag comes from the same (usually cached) lookup as the body, so a revalidation of a cached book runs
+    // no statement in counter mode; copy-level inventory still counts the free copies
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable("id") Long id) {
-        Optional<Book> book = bookService.getBookById(id);
-        if (book.isPresent()) {
-            return ResponseEntity.ok(book.get());
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<BookResponse> getBookById(
+            @PathVariable("id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return bookService.getBookById(id).map(bookService::toResponse).map(response -> {
+            String etag = CatalogVersions.bookTag(response);
+            if (CatalogVersions.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<BookResponse>build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(response);
+        }).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<Book> createBook(@Valid @RequestBody BookCreatedRequest request) {
-        // todo: BookResponcse dto
-        Book savedBook = bookService.createBook(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedBook);
+    public ResponseEntity<BookResponse> createBook(@Valid @RequestBody BookCreatedRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(bookService.toResponse(bookService.createBook(request)));
+    }
+
+    // body is read as a stream; Content-Type picks the format (text/csv or application/x-ndjson)
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportResult> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body
+    ) throws IOException {
+        boolean ndjson = contentType.startsWith("application/x-ndjson");
+        return ResponseEntity.ok(bookImportService.importBooks(body, ndjson));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(
+    public ResponseEntity<BookResponse> updateBook(
             @PathVariable("id") Long id,
             @Valid @RequestBody BookCreatedRequest request
             ) {
-        Optional<Book> book = bookService.updateBook(id, request);
-        if (book.isPresent()) {
-            return ResponseEntity.ok(book.get());
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return bookService.updateBook(id, request)
+                .map(book -> ResponseEntity.ok(bookService.toResponse(book)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
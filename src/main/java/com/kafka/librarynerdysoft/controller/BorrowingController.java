@@ -1,15 +1,19 @@
 package com.kafka.librarynerdysoft.controller;
 
+import com.kafka.librarynerdysoft.dto.BatchItemResult;
+import com.kafka.librarynerdysoft.dto.BookResponse;
 import com.kafka.librarynerdysoft.dto.BorrowBookRequest;
-import com.kafka.librarynerdysoft.entity.Book;
-import com.kafka.librarynerdysoft.entity.Borrowing;
-import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.dto.BorrowingResponse;
+import com.kafka.librarynerdysoft.dto.CheckoutResult;
 import com.kafka.librarynerdysoft.service.BorrowingService;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
@@ -20,9 +24,16 @@ public class BorrowingController {
 
     private final BorrowingService borrowingService;
 
+    // 200 with the loan, or 202 with a hold when the title is out of stock; poll or stream it at Location
     @PostMapping
-    public ResponseEntity<Borrowing> borrowBook(@RequestBody BorrowBookRequest request) {
-        return ResponseEntity.ok().body(borrowingService.borrowBook(request.getBookId(), request.getMemberId()));
+    public ResponseEntity<?> borrowBook(@RequestBody BorrowBookRequest request) {
+        CheckoutResult result = borrowingService.borrowOrHold(request.getBookId(), request.getMemberId());
+        if (result.isQueued()) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/holds/" + result.getHold().getId()))
+                    .body(result.getHold());
+        }
+        return ResponseEntity.ok().body(BorrowingResponse.of(result.getBorrowing()));
     }
 
     @DeleteMapping
@@ -31,21 +42,48 @@ public class BorrowingController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> borrowBooks(@RequestBody List<BorrowBookRequest> requests) {
+        return ResponseEntity.ok().body(borrowingService.borrowBooks(requests));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> returnBooks(@RequestBody List<BorrowBookRequest> requests) {
+        return ResponseEntity.ok().body(borrowingService.returnBooks(requests));
+    }
+
+    // returns every book of the member, the body is the number of books returned
+    @DeleteMapping("/member/{memberId}")
+    public ResponseEntity<Integer> returnAllBooks(@PathVariable Long memberId) {
+        return ResponseEntity.ok().body(borrowingService.returnAllBooks(memberId));
+    }
+
     @GetMapping("/books/member/{memberName}")
-    public ResponseEntity<List<Book>> getBooksBorrowedByMember(@PathVariable String memberName) {
-        List<Book> books = borrowingService.getBooksBorrowedByMemberName(memberName);
+    public ResponseEntity<List<BookResponse>> getBooksBorrowedByMember(@PathVariable String memberName) {
+        List<BookResponse> books = borrowingService.getBooksBorrowedByMemberName(memberName);
+        return ResponseEntity.ok(books);
+    }
+
+    @GetMapping("/books/member/id/{memberId}")
+    public ResponseEntity<List<BookResponse>> getBooksBorrowedByMemberId(@PathVariable Long memberId) {
+        List<BookResponse> books = borrowingService.getBooksBorrowedByMemberId(memberId);
         return ResponseEntity.ok(books);
     }
 
     @GetMapping("/books/distinct-names")
-    public ResponseEntity<List<String>> getDistinctBorrowedBookNames() {
-        List<String> bookNames = borrowingService.getDistinctBorrowedBookTitles();
+    public ResponseEntity<List<String>> getDistinctBorrowedBookNames(
+            @RequestParam(defaultValue = "0") @PositiveOrZero int page,
+            @RequestParam(required = false) @Positive Integer size
+    ) {
+        List<String> bookNames = borrowingService.getDistinctBorrowedBookTitles(page, size);
         return ResponseEntity.ok(bookNames);
     }
 
     @GetMapping("/books/distinct-names-with-count")
-    public ResponseEntity<Map<String, Long>> getDistinctBorrowedBookNamesWithCount() {
-        Map<String, Long> result = borrowingService.getBookTitleToBorrowCount();
+    public ResponseEntity<Map<String, Long>> getDistinctBorrowedBookNamesWithCount(
+            @RequestParam(required = false) @Positive Integer top
+    ) {
+        Map<String, Long> result = borrowingService.getBookTitleToBorrowCount(top);
         return ResponseEntity.ok(result);
     }
 }
@@ -0,0 +1,32 @@
+package com.kafka.librarynerdysoft.controller;
+
+import com.kafka.librarynerdysoft.dto.CirculationEvent;
+import com.kafka.librarynerdysoft.dto.CursorPage;
+import com.kafka.librarynerdysoft.service.MappedEventLog;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Tails the circulation event log: pass the last sequence seen as ?after= to get only newer events.
+// Served from the memory-mapped log, the database is never queried.
+@RestController
+@RequestMapping("/events")
+@AllArgsConstructor
+@ConditionalOnProperty(name = "library.outbox.sink", havingValue = "file", matchIfMissing = true)
+public class EventController {
+
+    private final MappedEventLog eventLog;
+
+    @GetMapping
+    public ResponseEntity<CursorPage<CirculationEvent>> getEvents(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit
+    ) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<CirculationEvent> rows = eventLog.read(after, pageSize + 1);
+        return ResponseEntity.ok(CursorPage.of(rows, pageSize, CirculationEvent::getSequence));
+    }
+}
@@ -0,0 +1,35 @@
+package com.kafka.librarynerdysoft.controller;
+
+import com.kafka.librarynerdysoft.service.ExportService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/export")
+@AllArgsConstructor
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportService exportService;
+
+    @GetMapping("/books")
+    public ResponseEntity<StreamingResponseBody> exportBooks() {
+        return ResponseEntity.ok().contentType(NDJSON).body(exportService::exportBooks);
+    }
+
+    @GetMapping("/members")
+    public ResponseEntity<StreamingResponseBody> exportMembers() {
+        return ResponseEntity.ok().contentType(NDJSON).body(exportService::exportMembers);
+    }
+
+    @GetMapping("/borrowings")
+    public ResponseEntity<StreamingResponseBody> exportBorrowings() {
+        return ResponseEntity.ok().contentType(NDJSON).body(exportService::exportBorrowings);
+    }
+}
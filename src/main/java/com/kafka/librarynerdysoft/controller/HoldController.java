@@ -0,0 +1,33 @@
+package com.kafka.librarynerdysoft.controller;
+
+import com.kafka.librarynerdysoft.dto.HoldResponse;
+import com.kafka.librarynerdysoft.service.HoldService;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/holds")
+@AllArgsConstructor
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<HoldResponse> getHold(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.getHold(id));
+    }
+
+    // server-sent "hold" events: the current status, then the final one; the stream ends with the hold
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamHold(@PathVariable Long id) {
+        return holdService.streamHold(id);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<HoldResponse> cancelHold(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.cancelHold(id));
+    }
+}
@@ -1,58 +1,66 @@
 package com.kafka.librarynerdysoft.controller;
 
+import com.kafka.librarynerdysoft.dto.CursorPage;
 import com.kafka.librarynerdysoft.dto.MemberCreatedRequest;
-import com.kafka.librarynerdysoft.entity.Book;
-import com.kafka.librarynerdysoft.entity.Member;
-import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.dto.MemberResponse;
+import com.kafka.librarynerdysoft.service.CatalogVersions;
 import com.kafka.librarynerdysoft.service.MemberService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/members")
 @AllArgsConstructor
 public class MemberController {
-    private final MemberRepository memberRepository;
     private final MemberService memberService;
+    private final CatalogVersions catalogVersions;
 
+    // tag before page, as in BookController
     @GetMapping
-    public ResponseEntity<List<Member>> getAllMembers() {
-        return ResponseEntity.ok().body(memberService.getAllMembers());
+    public ResponseEntity<CursorPage<MemberResponse>> getAllMembers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "" + CursorPage.DEFAULT_LIMIT) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        String etag = catalogVersions.membersTag();
+        if (CatalogVersions.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(memberService.getMembers(after, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Member> getMemberById(@PathVariable Long id) { // test if working
-        Optional<Member> member = memberService.getMemberById(id);
-        if (member.isPresent()) {
-            return ResponseEntity.ok(member.get());
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<MemberResponse> getMemberById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        return memberService.getMemberById(id).map(MemberResponse::of).map(response -> {
+            String etag = CatalogVersions.memberTag(response);
+            if (CatalogVersions.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<MemberResponse>build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(response);
+        }).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public ResponseEntity<Member> createMember(@Valid @RequestBody MemberCreatedRequest request) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(memberService.createMember(request));
+    public ResponseEntity<MemberResponse> createMember(@Valid @RequestBody MemberCreatedRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(MemberResponse.of(memberService.createMember(request)));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Member> updateMember(
+    public ResponseEntity<MemberResponse> updateMember(
             @PathVariable Long id,
             @Valid @RequestBody MemberCreatedRequest request
             ){
-        Optional<Member> member = memberService.updateMember(id, request);
-        if (member.isEmpty()){
-            return ResponseEntity.notFound().build();
-        } else {
-            return ResponseEntity.ok(member.get());
-        }
+        return memberService.updateMember(id, request)
+                .map(member -> ResponseEntity.ok(MemberResponse.of(member)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,25 @@
+package com.kafka.librarynerdysoft.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+    private Long bookId;
+
+    private Long memberId;
+
+    private boolean success;
+
+    // set for successful borrows
+    private Long borrowingId;
+
+    private String error;
+
+    public static BatchItemResult failed(BorrowBookRequest request, String error) {
+        return new BatchItemResult(request.getBookId(), request.getMemberId(), false, null, error);
+    }
+}
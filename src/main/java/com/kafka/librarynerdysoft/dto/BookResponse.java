@@ -0,0 +1,30 @@
+package com.kafka.librarynerdysoft.dto;
+
+import com.kafka.librarynerdysoft.entity.Book;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// list queries build it straight from the columns (select new ...), single lookups map the cached entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookResponse {
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private int amount;
+
+    private int availableCopies;
+
+    private long version;
+
+    // availableCopies: the count of free copy rows with copy-level inventory, otherwise the amount
+    public static BookResponse of(Book book, int availableCopies) {
+        return new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getAmount(),
+                availableCopies, book.getVersion());
+    }
+}
@@ -0,0 +1,19 @@
+package com.kafka.librarynerdysoft.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchResult {
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    // higher is better; title matches outweigh author matches, whole words outweigh prefixes
+    private int score;
+}
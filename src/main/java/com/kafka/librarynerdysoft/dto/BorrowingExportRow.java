@@ -0,0 +1,16 @@
+package com.kafka.librarynerdysoft.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingExportRow {
+    private Long id;
+
+    private Long memberId;
+
+    private Long bookId;
+}
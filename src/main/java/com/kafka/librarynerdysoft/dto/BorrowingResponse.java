@@ -0,0 +1,26 @@
+package com.kafka.librarynerdysoft.dto;
+
+import com.kafka.librarynerdysoft.entity.Borrowing;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowingResponse {
+    private Long id;
+
+    private Long bookId;
+
+    private Long memberId;
+
+    // set only when copy-level inventory is enabled
+    private Long copyId;
+
+    // reads the foreign keys only, so lazy book/member/copy references are never initialized
+    public static BorrowingResponse of(Borrowing borrowing) {
+        return new BorrowingResponse(borrowing.getId(), borrowing.getBook().getId(), borrowing.getMember().getId(),
+                borrowing.getCopy() == null ? null : borrowing.getCopy().getId());
+    }
+}
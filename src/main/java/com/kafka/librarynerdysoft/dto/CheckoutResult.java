@@ -0,0 +1,20 @@
+package com.kafka.librarynerdysoft.dto;
+
+import com.kafka.librarynerdysoft.entity.Borrowing;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// outcome of a borrow request: either the loan, or the hold the member was queued with
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutResult {
+    private Borrowing borrowing;
+
+    private HoldResponse hold;
+
+    public boolean isQueued() {
+        return hold != null;
+    }
+}
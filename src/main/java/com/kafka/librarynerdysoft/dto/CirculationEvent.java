@@ -0,0 +1,33 @@
+package com.kafka.librarynerdysoft.dto;
+
+import com.kafka.librarynerdysoft.entity.CirculationEventType;
+import com.kafka.librarynerdysoft.entity.OutboxEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CirculationEvent {
+    // position in the event log, assigned when the sink accepts the event
+    private Long sequence;
+
+    // the outbox row id; delivery is at-least-once, so consumers drop repeats by this id
+    private Long eventId;
+
+    private CirculationEventType type;
+
+    private Long bookId;
+
+    private Long memberId;
+
+    private LocalDateTime occurredAt;
+
+    public static CirculationEvent of(OutboxEvent event) {
+        return new CirculationEvent(null, event.getId(), event.getType(), event.getBookId(), event.getMemberId(),
+                event.getOccurredAt());
+    }
+}
@@ -0,0 +1,34 @@
+package com.kafka.librarynerdysoft.dto;
+
+import com.kafka.librarynerdysoft.entity.Hold;
+import com.kafka.librarynerdysoft.entity.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponse {
+    private Long id;
+
+    private Long bookId;
+
+    private Long memberId;
+
+    private HoldStatus status;
+
+    // patrons ahead in the title's queue; set while the hold is waiting
+    private Long position;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime closedAt;
+
+    public static HoldResponse of(Hold hold, Long position) {
+        return new HoldResponse(hold.getId(), hold.getBook().getId(), hold.getMember().getId(), hold.getStatus(),
+                position, hold.getCreatedAt(), hold.getClosedAt());
+    }
+}
@@ -0,0 +1,23 @@
+package com.kafka.librarynerdysoft.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResult {
+    // copies read from the body, one per valid row
+    private long rows;
+
+    private long rejectedRows;
+
+    private int titlesCreated;
+
+    private int titlesUpdated;
+
+    private long elapsedMillis;
+
+    private long rowsPerSecond;
+}
@@ -0,0 +1,28 @@
+package com.kafka.librarynerdysoft.dto;
+
+import com.kafka.librarynerdysoft.entity.Member;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberResponse {
+    private Long id;
+
+    private String name;
+
+    private LocalDateTime memberDate;
+
+    private int activeLoans;
+
+    private long version;
+
+    public static MemberResponse of(Member member) {
+        return new MemberResponse(member.getId(), member.getName(), member.getMemberDate(), member.getActiveLoans(),
+                member.getVersion());
+    }
+}
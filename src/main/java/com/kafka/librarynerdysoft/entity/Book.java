@@ -4,9 +4,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
+// indexes and constraints are created by the Flyway migrations, repeated here for reference
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "book_title_author_uk", columnNames = {"title", "author"}))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,7 +21,8 @@ import lombok.*;
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -23,4 +31,10 @@ public class Book {
 
     private int amount;
 
+    // checked on every entity update; the bulk stock statements bump it too, so saving a Book read
+    // before a borrow or return fails instead of writing the old amount back
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
 }
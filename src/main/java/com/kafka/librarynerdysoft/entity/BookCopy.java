@@ -0,0 +1,30 @@
+package com.kafka.librarynerdysoft.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(indexes = @Index(name = "book_copy_book_available_idx", columnList = "book_id, available"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCopy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_copy_seq")
+    @SequenceGenerator(name = "book_copy_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    private boolean available;
+
+}
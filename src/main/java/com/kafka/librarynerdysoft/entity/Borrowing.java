@@ -7,14 +7,20 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = "borrowing_member_book_uk", columnNames = {"member_id", "book_id"}),
+        indexes = @Index(name = "borrowing_book_idx", columnList = "book_id")
+)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Borrowing {
 
+    // sequence ids let Hibernate batch inserts, IDENTITY forces one round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_seq")
+    @SequenceGenerator(name = "borrowing_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,4 +31,9 @@ public class Borrowing {
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
+    // set only when copy-level inventory is enabled
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "copy_id")
+    private BookCopy copy;
+
 }
@@ -0,0 +1,7 @@
+package com.kafka.librarynerdysoft.entity;
+
+// stored by name in the outbox and by ordinal in the event log, so new types go at the end
+public enum CirculationEventType {
+    BORROWED,
+    RETURNED
+}
@@ -0,0 +1,60 @@
+package com.kafka.librarynerdysoft.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+// A member's place in the queue for an out-of-stock title. A waiting hold keeps one of the member's
+// loan slots (Member.activeLoans), so fulfilling it never runs into the borrow limit.
+@Entity
+@Table(
+        name = "book_hold",
+        indexes = {
+                @Index(name = "book_hold_book_status_idx", columnList = "book_id, status, created_at"),
+                @Index(name = "book_hold_status_idx", columnList = "status, created_at"),
+                @Index(name = "book_hold_member_idx", columnList = "member_id, book_id")
+        }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_hold_seq")
+    @SequenceGenerator(name = "book_hold_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Book book;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "member_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Member member;
+
+    // plain varchar on every database, H2 would otherwise expect its native enum type
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private HoldStatus status;
+
+    // queue order; ids come from pooled sequence blocks and are not monotonic across instances
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // when the hold was fulfilled or cancelled
+    private LocalDateTime closedAt;
+
+}
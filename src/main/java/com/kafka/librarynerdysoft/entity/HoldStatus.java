@@ -0,0 +1,7 @@
+package com.kafka.librarynerdysoft.entity;
+
+public enum HoldStatus {
+    WAITING,
+    FULFILLED,
+    CANCELLED
+}
@@ -1,14 +1,23 @@
 package com.kafka.librarynerdysoft.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "member_name_idx", columnList = "name"))
+@Check(name = "member_active_loans_check", constraints = "active_loans >= 0")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,7 +25,8 @@ import java.time.LocalDateTime;
 public class Member {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq")
+    @SequenceGenerator(name = "member_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -24,4 +34,15 @@ public class Member {
    // @Builder.Default
     private LocalDateTime memberDate;
 
+    // number of books currently borrowed; only changed by the guarded updates in MemberRepository,
+    // so saving a (possibly cached) Member never overwrites it
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private int activeLoans;
+
+    // guards name/memberDate edits; the loan counter updates leave it alone, they never race with those
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
 }
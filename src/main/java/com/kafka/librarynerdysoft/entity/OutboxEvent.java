@@ -0,0 +1,45 @@
+package com.kafka.librarynerdysoft.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+// A borrow or return waiting to be published, see OutboxPublisher. Plain ids rather than associations:
+// the row is written once and never navigated.
+@Entity
+@Table(name = "circulation_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "circulation_outbox_seq")
+    @SequenceGenerator(name = "circulation_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(nullable = false, length = 16)
+    private CirculationEventType type;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private Long memberId;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    public OutboxEvent(CirculationEventType type, Long bookId, Long memberId, LocalDateTime occurredAt) {
+        this(null, type, bookId, memberId, occurredAt);
+    }
+}
@@ -0,0 +1,9 @@
+package com.kafka.librarynerdysoft.projection;
+
+public interface BookTitleAuthor {
+    Long getId();
+
+    String getTitle();
+
+    String getAuthor();
+}
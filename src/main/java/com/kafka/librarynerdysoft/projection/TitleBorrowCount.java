@@ -0,0 +1,7 @@
+package com.kafka.librarynerdysoft.projection;
+
+public interface TitleBorrowCount {
+    String getTitle();
+
+    long getBorrowCount();
+}
@@ -0,0 +1,5 @@
+package com.kafka.librarynerdysoft.projection;
+
+// a title written by BookStockRepository.addCopies; created is false when the title already existed
+public record UpsertedTitle(Long id, String title, String author, boolean created) {
+}
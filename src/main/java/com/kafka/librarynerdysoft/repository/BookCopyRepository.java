@@ -0,0 +1,50 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.config.CacheConfig;
+import com.kafka.librarynerdysoft.entity.BookCopy;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
+
+public interface BookCopyRepository extends JpaRepository<BookCopy, Long> {
+
+    // concurrent borrowers of the same title skip each other's locked rows instead of queueing;
+    // copy changes alter the book's available copies, so the cached book is dropped as well
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0")
+    @Query(value = "select * from book_copy where book_id = :bookId and available = true limit 1 for update skip locked",
+            nativeQuery = true)
+    Optional<BookCopy> findFreeCopyForUpdate(@Param("bookId") Long bookId);
+
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0")
+    @Query("update BookCopy c set c.available = true where c.id = " +
+            "(select b.copy.id from Borrowing b where b.book.id = :bookId and b.member.id = :memberId)")
+    int releaseBorrowedCopy(@Param("bookId") Long bookId, @Param("memberId") Long memberId);
+
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true)
+    @Query("update BookCopy c set c.available = true where c.id in :ids")
+    int releaseCopies(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true)
+    @Query("update BookCopy c set c.available = true " +
+            "where c.id in (select b.copy.id from Borrowing b where b.member.id = :memberId)")
+    int releaseCopiesBorrowedBy(@Param("memberId") Long memberId);
+
+    int countByBookIdAndAvailableTrue(Long bookId);
+
+    // same guard as BookRepository.deleteIfNotBorrowed, so a borrowed copy is never deleted from under its loan
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0")
+    @Query("delete from BookCopy c where c.book.id = :bookId " +
+            "and not exists (select b.id from Borrowing b where b.book.id = :bookId) " +
+            "and not exists (select h.id from Hold h where h.book.id = :bookId " +
+            "and h.status = com.kafka.librarynerdysoft.entity.HoldStatus.WAITING)")
+    int deleteAllByBookIdIfNotBorrowed(@Param("bookId") Long bookId);
+}
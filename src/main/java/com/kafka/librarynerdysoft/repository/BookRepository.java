@@ -1,12 +1,114 @@
 package com.kafka.librarynerdysoft.repository;
 
+import com.kafka.librarynerdysoft.config.CacheConfig;
+import com.kafka.librarynerdysoft.dto.BookResponse;
 import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.projection.BookTitleAuthor;
+import com.kafka.librarynerdysoft.projection.UpsertedTitle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookStockRepository {
+
+    @Override
+    // stock changes on every borrow, so write transactions read it from the database
+    @Cacheable(cacheNames = CacheConfig.BOOKS, unless = "#result == null",
+            condition = "!T(com.kafka.librarynerdysoft.config.CacheConfig).inReadWriteTransaction()")
+    Optional<Book> findById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0.id", condition = "#p0.id != null")
+    <S extends Book> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0")
+    void deleteById(Long id);
+
+    // batched stock changes touch many rows, drop the whole cache instead of tracking ids
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true)
+    int[] decrementAmounts(List<Long> bookIds);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true)
+    int[] incrementAmounts(List<Long> bookIds);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true)
+    List<UpsertedTitle> addCopies(List<String> titles, List<String> authors, List<Integer> amounts);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#result")
+    Long addCopy(String title, String author);
 
     Optional<Book> findByTitleAndAuthor(String title, String author);
     Optional<Book> findByTitle(String title);
+
+    // keyset page: seeks the primary key index, so deep pages cost the same as the first one.
+    // Read straight into the response, no managed entities to hydrate or dirty-check. Available copies are
+    // only counted from the copy rows when copyLevel is set; otherwise amount is the available stock
+    @Query("select new com.kafka.librarynerdysoft.dto.BookResponse(b.id, b.title, b.author, b.amount, " +
+            "case when :copyLevel = true then cast((select count(c) from BookCopy c where c.book = b and c.available = true) as Integer) " +
+            "else b.amount end, b.version) from Book b where b.id > :after order by b.id")
+    List<BookResponse> findPage(@Param("after") Long after, @Param("copyLevel") boolean copyLevel, Limit limit);
+
+    // server-side cursor for exports, must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
+
+    // id, title and author only, for building the search index
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select b.id as id, b.title as title, b.author as author from Book b")
+    Stream<BookTitleAuthor> streamTitles();
+
+    @Query("select b.id from Book b where b.id in :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Stock statements bump the version like an entity update would, see Book.version.
+    // guarded decrement: returns 0 when the book is missing or out of stock
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0")
+    @Query("update Book b set b.amount = b.amount - 1, b.version = b.version + 1 where b.id = :id and b.amount > 0")
+    int decrementAmount(@Param("id") Long id);
+
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0")
+    @Query("update Book b set b.amount = b.amount + 1, b.version = b.version + 1 where b.id = :id")
+    int incrementAmount(@Param("id") Long id);
+
+    // one copy back for every title the member holds, (member, book) is unique so +1 is exact
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, allEntries = true)
+    @Query("update Book bk set bk.amount = bk.amount + 1, bk.version = bk.version + 1 " +
+            "where bk.id in (select b.book.id from Borrowing b where b.member.id = :memberId)")
+    int incrementAmountsBorrowedBy(@Param("memberId") Long memberId);
+
+    // returns 0 when the book is missing, still borrowed or has patrons waiting for it
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.BOOKS, key = "#p0")
+    @Query("delete from Book bk where bk.id = :id and not exists (select b.id from Borrowing b where b.book.id = :id) " +
+            "and not exists (select h.id from Hold h where h.book.id = :id " +
+            "and h.status = com.kafka.librarynerdysoft.entity.HoldStatus.WAITING)")
+    int deleteIfNotBorrowed(@Param("id") Long id);
 }
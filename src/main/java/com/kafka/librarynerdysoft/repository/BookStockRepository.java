@@ -0,0 +1,21 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.projection.UpsertedTitle;
+
+import java.util.List;
+
+// Stock changes in plain SQL. The batch methods send one JDBC batch, each entry a separate guarded statement.
+public interface BookStockRepository {
+
+    // rows affected per book id, 0 where the book is missing or out of stock
+    int[] decrementAmounts(List<Long> bookIds);
+
+    int[] incrementAmounts(List<Long> bookIds);
+
+    // adds amounts.get(i) copies of (titles.get(i), authors.get(i)), inserting the titles that are new, in one
+    // statement; the pairs must be distinct. Returns one row per pair.
+    List<UpsertedTitle> addCopies(List<String> titles, List<String> authors, List<Integer> amounts);
+
+    // adds one copy of (title, author), inserting the title if it is new; returns the book id
+    Long addCopy(String title, String author);
+}
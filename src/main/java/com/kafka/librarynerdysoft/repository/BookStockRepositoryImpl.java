@@ -0,0 +1,68 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.projection.UpsertedTitle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// every statement that changes amount also bumps version, see Book.version
+class BookStockRepositoryImpl implements BookStockRepository {
+
+    protected final JdbcTemplate jdbcTemplate;
+
+    BookStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int[] decrementAmounts(List<Long> bookIds) {
+        return batchUpdate("update book set amount = amount - 1, version = version + 1 where id = ? and amount > 0", bookIds);
+    }
+
+    @Override
+    public int[] incrementAmounts(List<Long> bookIds) {
+        return batchUpdate("update book set amount = amount + 1, version = version + 1 where id = ?", bookIds);
+    }
+
+    // atomic against concurrent creators thanks to the unique (title, author) index; PostgreSQL syntax.
+    // A raw nextval is safe next to Hibernate's pooled ids: each value owns its own id block.
+    @Override
+    public Long addCopy(String title, String author) {
+        return jdbcTemplate.queryForObject("""
+                insert into book (id, title, author, amount) values (nextval('book_seq'), ?, ?, 1)
+                on conflict (title, author) do update set amount = book.amount + 1, version = book.version + 1
+                returning id""", Long.class, title, author);
+    }
+
+    // One multi-row statement for the whole list, so an import racing createBook or another import adds to
+    // the title instead of failing on the unique index. Inserted rows still have the default version 0.
+    @Override
+    public List<UpsertedTitle> addCopies(List<String> titles, List<String> authors, List<Integer> amounts) {
+        if (titles.isEmpty()) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < titles.size(); i++) {
+            args.add(titles.get(i));
+            args.add(authors.get(i));
+            args.add(amounts.get(i));
+        }
+        String rows = String.join(", ", Collections.nCopies(titles.size(), "(nextval('book_seq'), ?, ?, ?)"));
+        return jdbcTemplate.query("""
+                insert into book (id, title, author, amount) values %s
+                on conflict (title, author) do update set amount = book.amount + excluded.amount, version = book.version + 1
+                returning id, title, author, version = 0 as created""".formatted(rows),
+                (rs, rowNum) -> new UpsertedTitle(rs.getLong("id"), rs.getString("title"), rs.getString("author"),
+                        rs.getBoolean("created")),
+                args.toArray());
+    }
+
+    private int[] batchUpdate(String sql, List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(sql, bookIds.stream().map(id -> new Object[]{id}).toList());
+    }
+}
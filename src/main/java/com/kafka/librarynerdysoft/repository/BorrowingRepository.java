@@ -1,24 +1,82 @@
 package com.kafka.librarynerdysoft.repository;
 
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.dto.BorrowingExportRow;
 import com.kafka.librarynerdysoft.entity.Book;
 import com.kafka.librarynerdysoft.entity.Borrowing;
 import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.projection.TitleBorrowCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BorrowingRepository extends JpaRepository<Borrowing, Long> {
 
     Optional<Borrowing> findByBookAndMember(Book book, Member member);
+    // the derived query left-joins book and member and filters on the joined ids, which keeps the
+    // planner off the (member_id, book_id) index; comparing the foreign keys directly uses it
+    @Query("select count(b) > 0 from Borrowing b where b.book.id = :bookId and b.member.id = :memberId")
+    boolean existsByBookIdAndMemberId(@Param("bookId") Long bookId, @Param("memberId") Long memberId);
     List<Borrowing> findAllByMember(Member member);
+    List<Borrowing> findAllByMemberIdIn(Collection<Long> memberIds);
 
     long countByMember(Member member);
     long countByBook(Book book);
 
     boolean existsByMember(Member member);
 
-    void deleteByBookAndMember(Book book, Member member);
-    void deleteAllByMember(Member member);
-    void deleteAllByBook(Book book);
-}
\ No newline at end of file
+    // single-statement deletes; the derived deleteBy* variants load every row and remove it one by one
+    @Modifying
+    @Query("delete from Borrowing b where b.book.id = :bookId and b.member.id = :memberId")
+    int deleteByBookIdAndMemberId(@Param("bookId") Long bookId, @Param("memberId") Long memberId);
+
+    @Modifying
+    @Query("delete from Borrowing b where b.member.id = :memberId")
+    int deleteAllByMemberId(@Param("memberId") Long memberId);
+
+    @Modifying
+    @Query("delete from Borrowing b where b.book.id = :bookId")
+    int deleteAllByBookId(@Param("bookId") Long bookId);
+
+    // member loans in one round trip, read into responses without loading Book entities; available copies as
+    // in BookRepository.findPage
+    @Query("select new com.kafka.librarynerdysoft.dto.BookResponse(bk.id, bk.title, bk.author, bk.amount, " +
+            "case when :copyLevel = true then cast((select count(c) from BookCopy c where c.book = bk and c.available = true) as Integer) " +
+            "else bk.amount end, bk.version) from Borrowing b join b.book bk join b.member m where m.name = :name order by b.id")
+    List<BookResponse> findBooksBorrowedByMemberName(@Param("name") String name, @Param("copyLevel") boolean copyLevel);
+
+    @Query("select new com.kafka.librarynerdysoft.dto.BookResponse(bk.id, bk.title, bk.author, bk.amount, " +
+            "case when :copyLevel = true then cast((select count(c) from BookCopy c where c.book = bk and c.available = true) as Integer) " +
+            "else bk.amount end, bk.version) from Borrowing b join b.book bk where b.member.id = :memberId order by b.id")
+    List<BookResponse> findBooksBorrowedByMemberId(@Param("memberId") Long memberId, @Param("copyLevel") boolean copyLevel);
+
+    @Query("select b.book.id from Borrowing b where b.member.id = :memberId")
+    List<Long> findBookIdsByMemberId(@Param("memberId") Long memberId);
+
+    @Query("select distinct bk.title from Borrowing b join b.book bk order by bk.title")
+    List<String> findDistinctBorrowedTitles(Pageable pageable);
+
+    @Query("select bk.title as title, count(b) as borrowCount from Borrowing b join b.book bk " +
+            "group by bk.title order by count(b) desc, bk.title")
+    List<TitleBorrowCount> countBorrowingsByTitle(Limit limit);
+
+    // server-side cursor for exports, must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.kafka.librarynerdysoft.dto.BorrowingExportRow(b.id, b.member.id, b.book.id) " +
+            "from Borrowing b order by b.id")
+    Stream<BorrowingExportRow> streamAllForExport();
+}
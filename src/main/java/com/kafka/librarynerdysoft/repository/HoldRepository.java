@@ -0,0 +1,55 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.entity.Hold;
+import com.kafka.librarynerdysoft.entity.HoldStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    // foreign keys compared directly, like BorrowingRepository, so the (book_id, status, created_at) index is used
+    @Query("select count(h) > 0 from Hold h where h.book.id = :bookId and h.status = :status")
+    boolean existsByBookIdAndStatus(@Param("bookId") Long bookId, @Param("status") HoldStatus status);
+
+    @Query("select count(h) > 0 from Hold h where h.book.id = :bookId and h.member.id = :memberId and h.status = :status")
+    boolean existsByBookIdAndMemberIdAndStatus(@Param("bookId") Long bookId, @Param("memberId") Long memberId,
+                                               @Param("status") HoldStatus status);
+
+    // existsByBookIdAndStatus for a whole batch: the titles among bookIds with a hold in the given status
+    @Query("select distinct h.book.id from Hold h where h.book.id in :bookIds and h.status = :status")
+    Set<Long> findBookIdsByStatus(@Param("bookIds") Collection<Long> bookIds, @Param("status") HoldStatus status);
+
+    // waiting holds queued before the given one for the same title; compared with the stored row, whose
+    // created_at may be coarser than the LocalDateTime it was written from
+    @Query("select count(h) from Hold h, Hold self where self.id = :id and h.book.id = self.book.id " +
+            "and h.status = com.kafka.librarynerdysoft.entity.HoldStatus.WAITING " +
+            "and (h.createdAt < self.createdAt or (h.createdAt = self.createdAt and h.id < self.id))")
+    long countAhead(@Param("id") Long id);
+
+    // oldest waiting holds whose title has a copy on the shelf (counter inventory)
+    @Query("select h from Hold h join fetch h.book bk join fetch h.member " +
+            "where h.status = com.kafka.librarynerdysoft.entity.HoldStatus.WAITING and bk.amount > 0 " +
+            "order by h.createdAt, h.id")
+    List<Hold> findFulfillable(Limit limit);
+
+    // oldest waiting holds whose title has a free copy row (copy-level inventory)
+    @Query("select h from Hold h join fetch h.book bk join fetch h.member " +
+            "where h.status = com.kafka.librarynerdysoft.entity.HoldStatus.WAITING " +
+            "and exists (select c.id from BookCopy c where c.book.id = bk.id and c.available = true) " +
+            "order by h.createdAt, h.id")
+    List<Hold> findFulfillableByCopies(Limit limit);
+
+    // returns 0 when the hold is missing or no longer waiting, so two fulfillers never close the same hold
+    @Modifying
+    @Query("update Hold h set h.status = :status, h.closedAt = :closedAt " +
+            "where h.id = :id and h.status = com.kafka.librarynerdysoft.entity.HoldStatus.WAITING")
+    int close(@Param("id") Long id, @Param("status") HoldStatus status, @Param("closedAt") LocalDateTime closedAt);
+}
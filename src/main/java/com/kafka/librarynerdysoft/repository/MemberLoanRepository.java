@@ -0,0 +1,12 @@
+package com.kafka.librarynerdysoft.repository;
+
+import java.util.List;
+
+// Active-loan counter changes for many members at once, sent as one JDBC batch; each entry is a separate guarded statement.
+public interface MemberLoanRepository {
+
+    // rows affected per member id, 0 where the member is missing or already holds maxLoans books
+    int[] incrementActiveLoans(List<Long> memberIds, int maxLoans);
+
+    int[] decrementActiveLoans(List<Long> memberIds);
+}
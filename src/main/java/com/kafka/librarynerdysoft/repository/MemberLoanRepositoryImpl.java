@@ -0,0 +1,30 @@
+package com.kafka.librarynerdysoft.repository;
+
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@AllArgsConstructor
+class MemberLoanRepositoryImpl implements MemberLoanRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] incrementActiveLoans(List<Long> memberIds, int maxLoans) {
+        if (memberIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate("update member set active_loans = active_loans + 1 where id = ? and active_loans < ?",
+                memberIds.stream().map(id -> new Object[]{id, maxLoans}).toList());
+    }
+
+    @Override
+    public int[] decrementActiveLoans(List<Long> memberIds) {
+        if (memberIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate("update member set active_loans = active_loans - 1 where id = ? and active_loans > 0",
+                memberIds.stream().map(id -> new Object[]{id}).toList());
+    }
+}
@@ -1,10 +1,87 @@
 package com.kafka.librarynerdysoft.repository;
 
+import com.kafka.librarynerdysoft.config.CacheConfig;
+import com.kafka.librarynerdysoft.dto.MemberResponse;
 import com.kafka.librarynerdysoft.entity.Member;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberLoanRepository {
+
+    @Override
+    // write transactions change the member they load (updates, @Version checks), so they never share the
+    // cached instance and read it from the database
+    @Cacheable(cacheNames = CacheConfig.MEMBERS, unless = "#result == null",
+            condition = "!T(com.kafka.librarynerdysoft.config.CacheConfig).inReadWriteTransaction()")
+    Optional<Member> findById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, key = "#p0.id", condition = "#p0.id != null")
+    <S extends Member> S save(S entity);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, key = "#p0")
+    void deleteById(Long id);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, allEntries = true)
+    int[] incrementActiveLoans(List<Long> memberIds, int maxLoans);
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, allEntries = true)
+    int[] decrementActiveLoans(List<Long> memberIds);
 
-public interface MemberRepository extends JpaRepository<Member, Long> {
     Optional<Member> findByName(String name);
+    boolean existsByName(String name);
+
+    // keyset page: seeks the primary key index, so deep pages cost the same as the first one
+    @Query("select new com.kafka.librarynerdysoft.dto.MemberResponse(m.id, m.name, m.memberDate, m.activeLoans, " +
+            "m.version) from Member m where m.id > :after order by m.id")
+    List<MemberResponse> findPage(@Param("after") Long after, Limit limit);
+
+    // server-side cursor for exports, must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select m from Member m order by m.id")
+    Stream<Member> streamAll();
+
+    // guarded increment: returns 0 when the member is missing or already holds maxLoans books.
+    // The row lock taken by the update serializes concurrent borrows by the same member.
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, key = "#p0")
+    @Query("update Member m set m.activeLoans = m.activeLoans + 1 where m.id = :id and m.activeLoans < :maxLoans")
+    int incrementActiveLoans(@Param("id") Long id, @Param("maxLoans") int maxLoans);
+
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, key = "#p0")
+    @Query("update Member m set m.activeLoans = m.activeLoans - 1 where m.id = :id and m.activeLoans > 0")
+    int decrementActiveLoans(@Param("id") Long id);
+
+    // returns 0 when the member is missing; the row lock keeps new borrows out until the transaction ends.
+    // Waiting holds keep their loan slots.
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, key = "#p0")
+    @Query("update Member m set m.activeLoans = (select count(h) from Hold h where h.member.id = :id " +
+            "and h.status = com.kafka.librarynerdysoft.entity.HoldStatus.WAITING) where m.id = :id")
+    int resetActiveLoans(@Param("id") Long id);
+
+    // returns 0 when the member is missing or still has books or waiting holds
+    @Modifying
+    @CacheEvict(cacheNames = CacheConfig.MEMBERS, key = "#p0")
+    @Query("delete from Member m where m.id = :id and m.activeLoans = 0")
+    int deleteIfNoActiveLoans(@Param("id") Long id);
 }
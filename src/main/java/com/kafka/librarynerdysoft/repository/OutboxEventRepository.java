@@ -0,0 +1,16 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // oldest unpublished events by the database clock (see V7). No skip locked: a second publisher waits for the
+    // first to finish its batch instead of publishing the rows behind it, which would reorder them
+    @Query(value = "select * from circulation_outbox order by recorded_at, id limit :limit for update", nativeQuery = true)
+    List<OutboxEvent> findBatchForUpdate(@Param("limit") int limit);
+}
@@ -0,0 +1,167 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
+import com.kafka.librarynerdysoft.dto.ImportResult;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.BookCopy;
+import com.kafka.librarynerdysoft.projection.UpsertedTitle;
+import com.kafka.librarynerdysoft.repository.BookCopyRepository;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@AllArgsConstructor
+public class BookImportService {
+    // distinct (title, author) pairs written per round of batched statements
+    private static final int CHUNK_SIZE = 500;
+
+    private final BookRepository bookRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final BookSearchIndex bookSearchIndex;
+    private final CatalogVersions catalogVersions;
+
+    // Reads "title,author" CSV (optional header) or NDJSON BookCreatedRequest lines; every valid row is one copy.
+    // Duplicates are summed in memory first, and each chunk of titles is one INSERT ... ON CONFLICT upsert.
+    @Transactional
+    public ImportResult importBooks(InputStream body, boolean ndjson) throws IOException {
+        long start = System.nanoTime();
+        Map<TitleAuthor, Integer> copies = new LinkedHashMap<>();
+        long rows = 0;
+        long rejectedRows = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        boolean firstLine = true;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            boolean header = firstLine && !ndjson && line.trim().equalsIgnoreCase("title,author");
+            firstLine = false;
+            if (header) {
+                continue;
+            }
+            BookCreatedRequest request = ndjson ? parseJson(line) : parseCsv(line);
+            if (request == null || !validator.validate(request).isEmpty()) {
+                rejectedRows++;
+                continue;
+            }
+            copies.merge(new TitleAuthor(request.getTitle(), request.getAuthor()), 1, Integer::sum);
+            rows++;
+        }
+
+        int titlesCreated = 0;
+        List<TitleAuthor> keys = new ArrayList<>(copies.keySet());
+        for (int from = 0; from < keys.size(); from += CHUNK_SIZE) {
+            titlesCreated += upsertChunk(keys.subList(from, Math.min(from + CHUNK_SIZE, keys.size())), copies);
+        }
+        if (!keys.isEmpty()) {
+            catalogVersions.booksChanged();
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+        return new ImportResult(rows, rejectedRows, titlesCreated, keys.size() - titlesCreated,
+                elapsedNanos / 1_000_000, rows * 1_000_000_000 / elapsedNanos);
+    }
+
+    // returns the number of new titles in the chunk
+    private int upsertChunk(List<TitleAuthor> chunk, Map<TitleAuthor, Integer> copies) {
+        List<UpsertedTitle> upserted = bookRepository.addCopies(
+                chunk.stream().map(TitleAuthor::title).toList(),
+                chunk.stream().map(TitleAuthor::author).toList(),
+                chunk.stream().map(copies::get).toList());
+
+        int created = 0;
+        List<BookCopy> copyRows = new ArrayList<>();
+        for (UpsertedTitle title : upserted) {
+            Book book = entityManager.getReference(Book.class, title.id());
+            int amount = copies.get(new TitleAuthor(title.title(), title.author()));
+            for (int i = 0; i < amount; i++) {
+                copyRows.add(new BookCopy(null, book, true));
+            }
+            if (title.created()) {
+                created++;
+                bookSearchIndex.put(indexed(title));
+            }
+        }
+
+        bookCopyRepository.saveAll(copyRows);
+        // push the batched inserts out and drop the chunk from the persistence context
+        entityManager.flush();
+        entityManager.clear();
+        return created;
+    }
+
+    private static Book indexed(UpsertedTitle title) {
+        Book book = new Book();
+        book.setId(title.id());
+        book.setTitle(title.title());
+        book.setAuthor(title.author());
+        return book;
+    }
+
+    private BookCreatedRequest parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, BookCreatedRequest.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    // two fields, optionally double-quoted ("" escapes a quote inside a quoted field)
+    private BookCreatedRequest parseCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        if (fields.size() != 2) {
+            return null;
+        }
+        BookCreatedRequest request = new BookCreatedRequest();
+        request.setTitle(fields.get(0));
+        request.setAuthor(fields.get(1));
+        return request;
+    }
+
+    private record TitleAuthor(String title, String author) {
+    }
+}
@@ -0,0 +1,207 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.kafka.librarynerdysoft.dto.BookSearchResult;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.projection.BookTitleAuthor;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// In-process inverted index over Book.title and Book.author, so searches never touch the database.
+// Loaded once at startup and kept current by BookService and BookImportService.
+@Component
+public class BookSearchIndex {
+    private static final int TITLE_WEIGHT = 2;
+    private static final int AUTHOR_WEIGHT = 1;
+    // a whole-word match counts this many times a prefix match
+    private static final int EXACT_FACTOR = 2;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+    // token -> ids of books with the token in the title or author; sorted, so a prefix is a range scan
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+
+    public BookSearchIndex(BookRepository bookRepository, PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // runs before the web server accepts requests, so searches never see a half-built index
+    @PostConstruct
+    public void load() {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<BookTitleAuthor> rows = bookRepository.streamTitles()) {
+                rows.forEach(row -> index(row.getId(), row.getTitle(), row.getAuthor()));
+            }
+        });
+    }
+
+    // Changes made inside a transaction are applied once it commits, so a rollback leaves the index untouched.
+    public void put(Book book) {
+        Long id = book.getId();
+        String title = book.getTitle();
+        String author = book.getAuthor();
+        afterCommit(() -> index(id, title, author));
+    }
+
+    public void remove(Long id) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                unindex(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Every query term has to match a title or author token, either whole or as a prefix.
+    // Results are ordered by score, then title and id, so pages are stable.
+    public List<BookSearchResult> search(String query, int page, int size) {
+        List<String> terms = tokenize(query).stream().distinct().toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String term : terms) {
+                Map<Long, Integer> termScores = scoreTerm(term);
+                if (scores != null) {
+                    termScores.keySet().retainAll(scores.keySet());
+                    Map<Long, Integer> previous = scores;
+                    termScores.replaceAll((id, score) -> score + previous.get(id));
+                }
+                scores = termScores;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .map(e -> {
+                        IndexedBook book = books.get(e.getKey());
+                        return new BookSearchResult(book.id(), book.title(), book.author(), e.getValue());
+                    })
+                    .sorted(Comparator.comparingInt(BookSearchResult::getScore).reversed()
+                            .thenComparing(BookSearchResult::getTitle, Comparator.nullsLast(Comparator.naturalOrder()))
+                            .thenComparing(BookSearchResult::getId))
+                    .skip((long) page * size)
+                    .limit(size)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best score of the term per book over all the index tokens it is a prefix of
+    private Map<Long, Integer> scoreTerm(String term) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Map.Entry<String, Set<Long>> posting : postings.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+            String token = posting.getKey();
+            int factor = token.equals(term) ? EXACT_FACTOR : 1;
+            for (Long id : posting.getValue()) {
+                IndexedBook book = books.get(id);
+                int score = ((book.titleTokens().contains(token) ? TITLE_WEIGHT : 0)
+                        + (book.authorTokens().contains(token) ? AUTHOR_WEIGHT : 0)) * factor;
+                scores.merge(id, score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private void index(Long id, String title, String author) {
+        IndexedBook book = new IndexedBook(id, title, author, Set.copyOf(tokenize(title)), Set.copyOf(tokenize(author)));
+        lock.writeLock().lock();
+        try {
+            unindex(id);
+            books.put(id, book);
+            book.tokens().forEach(token -> postings.computeIfAbsent(token, t -> new HashSet<>()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller holds the write lock
+    private void unindex(Long id) {
+        IndexedBook previous = books.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String token : previous.tokens()) {
+            Set<Long> ids = postings.get(token);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    // case-folded, accents stripped, split on anything that is not a letter or digit
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private record IndexedBook(Long id, String title, String author, Set<String> titleTokens, Set<String> authorTokens) {
+        Set<String> tokens() {
+            Set<String> tokens = new HashSet<>(titleTokens);
+            tokens.addAll(authorTokens);
+            return tokens;
+        }
+    }
+}
@@ -1,70 +1,104 @@
 package com.kafka.librarynerdysoft.service;
 
+import com.kafka.librarynerdysoft.config.MetricsConfig;
+import com.kafka.librarynerdysoft.config.RetryOnConflict;
 import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.dto.BookSearchResult;
+import com.kafka.librarynerdysoft.dto.CursorPage;
 import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.BookCopy;
+import com.kafka.librarynerdysoft.repository.BookCopyRepository;
 import com.kafka.librarynerdysoft.repository.BookRepository;
-import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
-import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
 
 @Service
-@AllArgsConstructor
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@RequiredArgsConstructor
 public class BookService {
     private final BookRepository bookRepository;
-    private final BorrowingRepository borrowingRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final CatalogVersions catalogVersions;
 
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    @Value("${library.inventory.copy-level:false}")
+    private boolean copyLevelInventory;
+
+    public CursorPage<BookResponse> getBooks(Long after, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<BookResponse> rows = bookRepository.findPage(after == null ? 0L : after, copyLevelInventory, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, BookResponse::getId);
+    }
+
+    public List<BookSearchResult> searchBooks(String query, int page, int size) {
+        return bookSearchIndex.search(query, page, size);
     }
 
     public Optional<Book> getBookById(Long id) {
         return bookRepository.findById(id);
     }
 
-    public Book createBook(BookCreatedRequest request) {
+    // copy rows are only counted with copy-level inventory; otherwise the amount is what can be borrowed
+    public BookResponse toResponse(Book book) {
+        int availableCopies = copyLevelInventory
+                ? bookCopyRepository.countByBookIdAndAvailableTrue(book.getId())
+                : book.getAmount();
+        return BookResponse.of(book, availableCopies);
+    }
 
-        Optional<Book> optionalBook = bookRepository.findByTitleAndAuthor(
-                request.getTitle(), request.getAuthor());
+    @Transactional
+    public Book createBook(BookCreatedRequest request) {
 
-        if (optionalBook.isPresent()) {
-            Book existingBook = optionalBook.get();
-            existingBook.setAmount(existingBook.getAmount() + 1);
-            return bookRepository.save(existingBook);
-        } else {
-            Book newBook = new Book();
-            newBook.setTitle(request.getTitle());
-            newBook.setAuthor(request.getAuthor());
-            newBook.setAmount(1);
-            return bookRepository.save(newBook);
-        }
+        // single upsert, so two requests for a new title can't create it twice
+        Long bookId = bookRepository.addCopy(request.getTitle(), request.getAuthor());
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new EntityNotFoundException("Book with id " + bookId + " not found"));
+        // every physical copy gets its own row for copy-level inventory
+        bookCopyRepository.save(new BookCopy(null, book, true));
+        catalogVersions.booksChanged();
+        bookSearchIndex.put(book);
+        return book;
     }
 
+    // read-modify-write of the whole row; a borrow or return in between bumps the version and forces a retry
+    @Transactional
+    @RetryOnConflict
     public Optional<Book> updateBook(Long id, BookCreatedRequest request){
         Optional<Book> optionalBook = bookRepository.findById(id);
         if (optionalBook.isPresent()) {
             Book book = optionalBook.get();
             book.setTitle(request.getTitle());
             book.setAuthor(request.getAuthor());
-            return Optional.of(bookRepository.save(book));
+            Book saved = bookRepository.save(book);
+            catalogVersions.booksChanged();
+            bookSearchIndex.put(saved);
+            return Optional.of(saved);
         } else {
             return Optional.empty();
         }
     }
 
+    @Transactional
     public void deleteBook(Long id) {
-        // check if book is borrowed
-        Optional<Book> bookToDelete = bookRepository.findById(id);
-        if (bookToDelete.isEmpty()){
-            throw new EntityNotFoundException("Book with id " + id + " not found");
-        }
-        if (borrowingRepository.countByBook(bookToDelete.get()) > 0) {
+        // both deletes check that the book is not borrowed, so a borrowed book keeps its copies and is refused below
+        bookCopyRepository.deleteAllByBookIdIfNotBorrowed(id);
+        if (bookRepository.deleteIfNotBorrowed(id) == 0) {
+            if (!bookRepository.existsById(id)) {
+                throw new EntityNotFoundException("Book with id " + id + " not found");
+            }
             throw new RuntimeException("Member with id " + id + " is borrowing a book");
         }
-        bookRepository.deleteById(id);
+        catalogVersions.booksChanged();
+        bookSearchIndex.remove(id);
     }
 
 
@@ -1,108 +1,479 @@
 package com.kafka.librarynerdysoft.service;
 
-import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.config.MetricsConfig;
+import com.kafka.librarynerdysoft.config.RetryOnConflict;
+import com.kafka.librarynerdysoft.dto.BatchItemResult;
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.dto.BorrowBookRequest;
+import com.kafka.librarynerdysoft.dto.CheckoutResult;
+import com.kafka.librarynerdysoft.dto.HoldResponse;
+import com.kafka.librarynerdysoft.entity.BookCopy;
 import com.kafka.librarynerdysoft.entity.Borrowing;
+import com.kafka.librarynerdysoft.entity.CirculationEventType;
+import com.kafka.librarynerdysoft.entity.Hold;
+import com.kafka.librarynerdysoft.entity.HoldStatus;
 import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.entity.OutboxEvent;
+import com.kafka.librarynerdysoft.projection.TitleBorrowCount;
+import com.kafka.librarynerdysoft.repository.BookCopyRepository;
 import com.kafka.librarynerdysoft.repository.BookRepository;
 import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.HoldRepository;
 import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.repository.OutboxEventRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @Transactional
 public class BorrowingService {
+    // borrow attempts turned down, tagged with one of the reasons below
+    public static final String REJECTIONS = "library.borrow.rejections";
+    public static final String OUT_OF_STOCK = "out_of_stock";
+    public static final String LIMIT_REACHED = "limit_reached";
+    public static final String ALREADY_BORROWED = "already_borrowed";
+    public static final String ALREADY_QUEUED = "already_queued";
+    // waitlist activity, tagged event=queued|fulfilled
+    public static final String HOLDS = "library.holds";
+
     private final BookRepository bookRepository;
     private final BorrowingRepository borrowingRepository;
     private final MemberRepository memberRepository;
+    private final BookCopyRepository bookCopyRepository;
+    private final HoldRepository holdRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersions catalogVersions;
 
-    public BorrowingService(BookRepository bookRepository, BorrowingRepository borrowingRepository, MemberRepository memberRepository) {
+    public BorrowingService(BookRepository bookRepository, BorrowingRepository borrowingRepository, MemberRepository memberRepository,
+                            BookCopyRepository bookCopyRepository, HoldRepository holdRepository,
+                            OutboxEventRepository outboxEventRepository, MeterRegistry meterRegistry,
+                            ApplicationEventPublisher eventPublisher, CatalogVersions catalogVersions) {
         this.bookRepository = bookRepository;
         this.borrowingRepository = borrowingRepository;
         this.memberRepository = memberRepository;
+        this.bookCopyRepository = bookCopyRepository;
+        this.holdRepository = holdRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersions = catalogVersions;
     }
     @Value("${library.max.borrowed.books}")
     private int maxBorrowed;
 
+    @Value("${library.inventory.copy-level:false}")
+    private boolean copyLevelInventory;
+
+    // refused as out of stock while anyone is queued for the title, so a returned copy goes to the waitlist
+    @RetryOnConflict
     public Borrowing borrowBook(Long bookId, Long memberId) {
+        return checkout(bookId, memberId, false).getBorrowing();
+    }
+
+    // Like borrowBook, but instead of turning the member away when the title is out of stock, queues a hold
+    // that HoldFulfiller turns into a loan once a copy comes back. While anyone is queued for the title,
+    // newcomers queue too, so a returned copy can't be taken ahead of the waitlist.
+    @RetryOnConflict
+    public CheckoutResult borrowOrHold(Long bookId, Long memberId) {
+        return checkout(bookId, memberId, true);
+    }
+
+    private CheckoutResult checkout(Long bookId, Long memberId, boolean holdWhenUnavailable) {
         // check if member exists
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new EntityNotFoundException("Member Not Found"));
-        // check if book exists
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new EntityNotFoundException("Book Not Found"));
-        // check amount of books available
-        if (book.getAmount() <= 0) {
-            throw new RuntimeException("Book is no available for borrowing"); // todo: custom exceptions
-        }
-        // check member's limits of borrowing
-        if (borrowingRepository.countByMember(member) > maxBorrowed) {
+        // take a loan slot; the guarded update enforces the limit even for parallel borrows
+        // and is rolled back with the rest of the transaction if the checkout fails below.
+        // A hold keeps the slot until it is fulfilled or cancelled.
+        if (memberRepository.incrementActiveLoans(memberId, maxBorrowed) == 0) {
+            countRejection(LIMIT_REACHED);
             throw new RuntimeException("Member is no allowed to borrow any more books");
         }
         // check if member already borrowed the book
-        if (borrowingRepository.findByBookAndMember(book, member).isPresent()) {
+        if (borrowingRepository.existsByBookIdAndMemberId(bookId, memberId)) {
+            countRejection(ALREADY_BORROWED);
             throw new RuntimeException("Book is already borrowed");
         }
-
+        boolean queueWaiting = holdRepository.existsByBookIdAndStatus(bookId, HoldStatus.WAITING);
         Borrowing borrowing = new Borrowing();
-        borrowing.setBook(book);
-        borrowing.setMember(member);
+        if (!queueWaiting && takeCopy(bookId, borrowing)) {
+            // the guarded stock update found the row, a reference is enough for the foreign key
+            borrowing.setBook(bookRepository.getReferenceById(bookId));
+            borrowing.setMember(member);
+            borrowing = borrowingRepository.save(borrowing);
+            outboxEventRepository.save(new OutboxEvent(CirculationEventType.BORROWED, bookId, memberId, LocalDateTime.now()));
+            loansChanged();
+            return new CheckoutResult(borrowing, null);
+        }
+        if (!queueWaiting && !bookRepository.existsById(bookId)) {
+            throw new EntityNotFoundException("Book Not Found");
+        }
+        if (!holdWhenUnavailable) {
+            countRejection(OUT_OF_STOCK);
+            throw new RuntimeException("Book is no available for borrowing"); // todo: custom exceptions
+        }
+        if (queueWaiting && holdRepository.existsByBookIdAndMemberIdAndStatus(bookId, memberId, HoldStatus.WAITING)) {
+            countRejection(ALREADY_QUEUED);
+            throw new RuntimeException("Book is already on hold");
+        }
+        Hold hold = new Hold();
+        hold.setBook(bookRepository.getReferenceById(bookId));
+        hold.setMember(member);
+        hold.setStatus(HoldStatus.WAITING);
+        hold.setCreatedAt(LocalDateTime.now());
+        hold = holdRepository.save(hold);
+        meterRegistry.counter(HOLDS, "event", "queued").increment();
+        catalogVersions.membersChanged();
+        return new CheckoutResult(null, HoldResponse.of(hold, holdRepository.countAhead(hold.getId())));
+    }
 
-        book.setAmount(book.getAmount() - 1);
-        bookRepository.save(book);
+    // Hands copies on the shelf to the oldest waiting holds in one transaction; returns the number of
+    // holds fulfilled, so the caller knows whether another batch may be waiting. The loans are created
+    // here rather than in returnBook, so a return never waits on the queue.
+    public int fulfilHolds(int batchSize) {
+        List<Hold> holds = copyLevelInventory
+                ? holdRepository.findFulfillableByCopies(Limit.of(batchSize))
+                : holdRepository.findFulfillable(Limit.of(batchSize));
+        if (holds.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Set<Long>> loans = new HashMap<>();
+        for (Borrowing borrowing : borrowingRepository.findAllByMemberIdIn(
+                holds.stream().map(h -> h.getMember().getId()).collect(Collectors.toSet()))) {
+            loans.computeIfAbsent(borrowing.getMember().getId(), id -> new HashSet<>()).add(borrowing.getBook().getId());
+        }
 
-        return borrowingRepository.save(borrowing);
+        LocalDateTime now = LocalDateTime.now();
+        List<Borrowing> borrowings = new ArrayList<>();
+        List<Long> closed = new ArrayList<>();
+        for (Hold hold : holds) {
+            Long bookId = hold.getBook().getId();
+            Long memberId = hold.getMember().getId();
+            // the member got the title through a batch borrow meanwhile; drop the hold and give its slot back
+            if (loans.getOrDefault(memberId, Set.of()).contains(bookId)) {
+                if (holdRepository.close(hold.getId(), HoldStatus.CANCELLED, now) > 0) {
+                    memberRepository.decrementActiveLoans(memberId);
+                    closed.add(hold.getId());
+                }
+                continue;
+            }
+            // an earlier hold in this batch may have taken the title's last copy
+            Borrowing borrowing = new Borrowing();
+            if (!takeCopy(bookId, borrowing)) {
+                continue;
+            }
+            // another instance fulfilled it first; put the copy back
+            if (holdRepository.close(hold.getId(), HoldStatus.FULFILLED, now) == 0) {
+                putBack(bookId, borrowing);
+                continue;
+            }
+            borrowing.setBook(hold.getBook());
+            borrowing.setMember(hold.getMember());
+            borrowings.add(borrowing);
+            closed.add(hold.getId());
+        }
+        borrowingRepository.saveAll(borrowings);
+        recordEvents(CirculationEventType.BORROWED, borrowings, now);
+        meterRegistry.counter(HOLDS, "event", "fulfilled").increment(borrowings.size());
+        if (!closed.isEmpty()) {
+            loansChanged();
+            eventPublisher.publishEvent(new HoldsClosedEvent(closed));
+        }
+        return borrowings.size();
     }
 
+    @RetryOnConflict
     public void returnBook(Long bookId, Long memberId) {
-        Member member = memberRepository.findById(memberId).get();
-        // !!!
-        Book book = bookRepository.findById(bookId).get();
+        if (copyLevelInventory) {
+            bookCopyRepository.releaseBorrowedCopy(bookId, memberId);
+        }
+        // only put the copy back on the shelf if it was actually borrowed;
+        // the member lookup is only needed to tell the two failures apart
+        if (borrowingRepository.deleteByBookIdAndMemberId(bookId, memberId) == 0) {
+            if (!memberRepository.existsById(memberId)) {
+                throw new EntityNotFoundException("Member Not Found");
+            }
+            throw new EntityNotFoundException("Borrowing Not Found");
+        }
+        if (!copyLevelInventory) {
+            bookRepository.incrementAmount(bookId);
+        }
+        memberRepository.decrementActiveLoans(memberId);
+        outboxEventRepository.save(new OutboxEvent(CirculationEventType.RETURNED, bookId, memberId, LocalDateTime.now()));
+        loansChanged();
+        eventPublisher.publishEvent(new StockReleasedEvent(List.of(bookId)));
+    }
+
+    // Returns every book the member holds with a fixed number of set-based statements; returns the number of books.
+    public int returnAllBooks(Long memberId) {
+        // locks the member row first, so no borrow can slip in between the statements below
+        if (memberRepository.resetActiveLoans(memberId) == 0) {
+            throw new EntityNotFoundException("Member Not Found");
+        }
+        if (copyLevelInventory) {
+            bookCopyRepository.releaseCopiesBorrowedBy(memberId);
+        } else {
+            bookRepository.incrementAmountsBorrowedBy(memberId);
+        }
+        // the member row is locked, so these are exactly the loans deleted below
+        LocalDateTime now = LocalDateTime.now();
+        outboxEventRepository.saveAll(borrowingRepository.findBookIdsByMemberId(memberId).stream()
+                .map(bookId -> new OutboxEvent(CirculationEventType.RETURNED, bookId, memberId, now))
+                .toList());
+        int returned = borrowingRepository.deleteAllByMemberId(memberId);
+        loansChanged();
+        if (returned > 0) {
+            eventPublisher.publishEvent(new StockReleasedEvent(List.of()));
+        }
+        return returned;
+    }
+
+    // Validates a burst of checkouts with a handful of IN lookups, takes the stock in one JDBC batch
+    // and lets Hibernate batch the inserts. Items fail independently; results keep the request order.
+    public List<BatchItemResult> borrowBooks(List<BorrowBookRequest> requests) {
+        Set<Long> memberIds = collectIds(requests, BorrowBookRequest::getMemberId);
+        Set<Long> bookIds = collectIds(requests, BorrowBookRequest::getBookId);
+        Map<Long, Member> members = memberRepository.findAllById(memberIds).stream()
+                .collect(Collectors.toMap(Member::getId, Function.identity()));
+        Set<Long> existingBookIds = bookIds.isEmpty() ? Set.of() : bookRepository.findExistingIds(bookIds);
+        // copies of a queued title belong to the waitlist, as in borrowOrHold; a batch can't queue, so those items fail
+        Set<Long> queuedBookIds = bookIds.isEmpty() ? Set.of() : holdRepository.findBookIdsByStatus(bookIds, HoldStatus.WAITING);
+        Map<Long, Set<Long>> loans = new HashMap<>();
+        for (Borrowing borrowing : borrowingRepository.findAllByMemberIdIn(memberIds)) {
+            loans.computeIfAbsent(borrowing.getMember().getId(), id -> new HashSet<>()).add(borrowing.getBook().getId());
+        }
+
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BorrowBookRequest request = requests.get(i);
+            Set<Long> memberLoans = loans.computeIfAbsent(request.getMemberId(), id -> new HashSet<>());
+            if (!members.containsKey(request.getMemberId())) {
+                results[i] = BatchItemResult.failed(request, "Member Not Found");
+            } else if (memberLoans.contains(request.getBookId())) {
+                countRejection(ALREADY_BORROWED);
+                results[i] = BatchItemResult.failed(request, "Book is already borrowed");
+            } else if (request.getBookId() == null || !existingBookIds.contains(request.getBookId())) {
+                results[i] = BatchItemResult.failed(request, "Book Not Found");
+            } else if (queuedBookIds.contains(request.getBookId())) {
+                countRejection(OUT_OF_STOCK);
+                results[i] = BatchItemResult.failed(request, "Book is no available for borrowing");
+            } else {
+                memberLoans.add(request.getBookId());
+                accepted.add(i);
+            }
+        }
 
-        // increase amount of books
-        book.setAmount(book.getAmount() + 1);
-        bookRepository.save(book);
+        // loan slots first, then stock; both go out as single JDBC batches of guarded updates
+        int[] slots = memberRepository.incrementActiveLoans(
+                accepted.stream().map(i -> requests.get(i).getMemberId()).toList(), maxBorrowed);
+        List<Integer> withSlot = new ArrayList<>();
+        for (int j = 0; j < accepted.size(); j++) {
+            if (slots[j] == 0) {
+                countRejection(LIMIT_REACHED);
+                results[accepted.get(j)] = BatchItemResult.failed(requests.get(accepted.get(j)),
+                        "Member is no allowed to borrow any more books");
+            } else {
+                withSlot.add(accepted.get(j));
+            }
+        }
+        accepted = withSlot;
 
-        // delete
-        borrowingRepository.deleteByBookAndMember(book, member);
+        // counter mode sends all guarded decrements as a single JDBC batch
+        List<Long> acceptedBookIds = accepted.stream().map(i -> requests.get(i).getBookId()).toList();
+        List<BookCopy> copies = copyLevelInventory ? claimCopies(acceptedBookIds) : null;
+        int[] decremented = copyLevelInventory ? null : bookRepository.decrementAmounts(acceptedBookIds);
+
+        List<Borrowing> borrowings = new ArrayList<>();
+        List<Integer> borrowed = new ArrayList<>();
+        List<Long> releasedSlots = new ArrayList<>();
+        for (int j = 0; j < accepted.size(); j++) {
+            BorrowBookRequest request = requests.get(accepted.get(j));
+            boolean taken = copyLevelInventory ? copies.get(j) != null : decremented[j] != 0;
+            if (!taken) {
+                countRejection(OUT_OF_STOCK);
+                results[accepted.get(j)] = BatchItemResult.failed(request, "Book is no available for borrowing");
+                releasedSlots.add(request.getMemberId());
+                continue;
+            }
+            Borrowing borrowing = new Borrowing();
+            borrowing.setBook(bookRepository.getReferenceById(request.getBookId()));
+            borrowing.setMember(members.get(request.getMemberId()));
+            borrowing.setCopy(copyLevelInventory ? copies.get(j) : null);
+            borrowings.add(borrowing);
+            borrowed.add(accepted.get(j));
+        }
+        memberRepository.decrementActiveLoans(releasedSlots);
+        borrowingRepository.saveAll(borrowings);
+        recordEvents(CirculationEventType.BORROWED, borrowings, LocalDateTime.now());
+        if (!borrowings.isEmpty()) {
+            loansChanged();
+        }
+        for (int j = 0; j < borrowed.size(); j++) {
+            BorrowBookRequest request = requests.get(borrowed.get(j));
+            results[borrowed.get(j)] = new BatchItemResult(
+                    request.getBookId(), request.getMemberId(), true, borrowings.get(j).getId(), null);
+        }
+        return Arrays.asList(results);
     }
 
-    public List<Book> getBooksBorrowedByMemberName(String name){
-        Member member = memberRepository.findByName(name)
-                .orElseThrow(() -> new EntityNotFoundException("Member Not Found"));
+    public List<BatchItemResult> returnBooks(List<BorrowBookRequest> requests) {
+        Set<Long> memberIds = collectIds(requests, BorrowBookRequest::getMemberId);
+        Map<Long, Map<Long, Borrowing>> loans = new HashMap<>();
+        for (Borrowing borrowing : borrowingRepository.findAllByMemberIdIn(memberIds)) {
+            loans.computeIfAbsent(borrowing.getMember().getId(), id -> new HashMap<>())
+                    .put(borrowing.getBook().getId(), borrowing);
+        }
+
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Borrowing> returned = new ArrayList<>();
+        for (BorrowBookRequest request : requests) {
+            // removing makes a repeated item in the same batch fail like a second return would
+            Borrowing borrowing = loans.getOrDefault(request.getMemberId(), new HashMap<>()).remove(request.getBookId());
+            if (borrowing == null) {
+                results.add(BatchItemResult.failed(request, "Borrowing Not Found"));
+                continue;
+            }
+            returned.add(borrowing);
+            results.add(new BatchItemResult(request.getBookId(), request.getMemberId(), true, null, null));
+        }
+        if (returned.isEmpty()) {
+            return results;
+        }
+
+        if (copyLevelInventory) {
+            bookCopyRepository.releaseCopies(returned.stream()
+                    .filter(b -> b.getCopy() != null)
+                    .map(b -> b.getCopy().getId())
+                    .toList());
+        }
+        borrowingRepository.deleteAllInBatch(returned);
+        if (!copyLevelInventory) {
+            bookRepository.incrementAmounts(returned.stream().map(b -> b.getBook().getId()).toList());
+        }
+        memberRepository.decrementActiveLoans(returned.stream().map(b -> b.getMember().getId()).toList());
+        recordEvents(CirculationEventType.RETURNED, returned, LocalDateTime.now());
+        loansChanged();
+        eventPublisher.publishEvent(new StockReleasedEvent(returned.stream().map(b -> b.getBook().getId()).toList()));
+        return results;
+    }
 
-        List<Borrowing> borrowings = borrowingRepository.findAllByMember(member);
+    // one entry per book id, null where no free copy was left
+    private List<BookCopy> claimCopies(List<Long> bookIds) {
+        List<BookCopy> copies = new ArrayList<>();
+        for (Long bookId : bookIds) {
+            Optional<BookCopy> copy = bookCopyRepository.findFreeCopyForUpdate(bookId);
+            copy.ifPresent(c -> c.setAvailable(false));
+            copies.add(copy.orElse(null));
+        }
+        return copies;
+    }
 
-        return borrowings
-                .stream().map(Borrowing::getBook).toList();
+    // outbox rows commit or roll back with the loan changes; OutboxPublisher ships them afterwards
+    private void recordEvents(CirculationEventType type, List<Borrowing> borrowings, LocalDateTime occurredAt) {
+        outboxEventRepository.saveAll(borrowings.stream()
+                .map(b -> new OutboxEvent(type, b.getBook().getId(), b.getMember().getId(), occurredAt))
+                .toList());
     }
 
-    public List<String> getDistinctBorrowedBookTitles() {
-        return borrowingRepository.findAll().stream()
-                .map(b -> b.getBook().getTitle())
-                .distinct()
-                .toList();
+    // a loan moves a book's stock and a member's active loans, so both list tags move with it
+    private void loansChanged() {
+        catalogVersions.booksChanged();
+        catalogVersions.membersChanged();
     }
 
-    public Map<String, Long> getBookTitleToBorrowCount() {
-        return borrowingRepository.findAll().stream()
-                .collect(Collectors.groupingBy(
-                        borrowing -> borrowing.getBook().getTitle(),
-                        Collectors.counting()
-                ));
-    } // todo: remake it with Query (SQL) in repository.
+    private void countRejection(String reason) {
+        meterRegistry.counter(REJECTIONS, "reason", reason).increment();
+    }
+
+    private static Set<Long> collectIds(List<BorrowBookRequest> requests, Function<BorrowBookRequest, Long> id) {
+        return requests.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+    }
+
+    // Takes one copy out of stock for the borrowing; false when none is left. With copy-level inventory
+    // a free copy row is claimed (locked rows are skipped, so borrowers of a hot title don't queue on one row);
+    // otherwise Book.amount is decremented with a single guarded update.
+    private boolean takeCopy(Long bookId, Borrowing borrowing) {
+        if (copyLevelInventory) {
+            Optional<BookCopy> copy = bookCopyRepository.findFreeCopyForUpdate(bookId);
+            if (copy.isPresent()) {
+                copy.get().setAvailable(false);
+                borrowing.setCopy(bookCopyRepository.saveAndFlush(copy.get()));
+                return true;
+            }
+            return false;
+        }
+        return bookRepository.decrementAmount(bookId) > 0;
+    }
+
+    private void putBack(Long bookId, Borrowing borrowing) {
+        if (copyLevelInventory) {
+            borrowing.getCopy().setAvailable(true);
+        } else {
+            bookRepository.incrementAmount(bookId);
+        }
+    }
 
+    public List<BookResponse> getBooksBorrowedByMemberName(String name){
+        List<BookResponse> books = borrowingRepository.findBooksBorrowedByMemberName(name, copyLevelInventory);
+        // the member lookup is only needed to tell "no loans" from "no such member"
+        if (books.isEmpty() && !memberRepository.existsByName(name)) {
+            throw new EntityNotFoundException("Member Not Found");
+        }
+        return books;
+    }
 
+    public List<BookResponse> getBooksBorrowedByMemberId(Long memberId){
+        List<BookResponse> books = borrowingRepository.findBooksBorrowedByMemberId(memberId, copyLevelInventory);
+        if (books.isEmpty() && !memberRepository.existsById(memberId)) {
+            throw new EntityNotFoundException("Member Not Found");
+        }
+        return books;
+    }
 
+    // sorted titles straight from a DISTINCT query; all of them when size is null
+    public List<String> getDistinctBorrowedBookTitles(int page, Integer size) {
+        Pageable pageable = size == null ? Pageable.unpaged() : PageRequest.of(page, size);
+        return borrowingRepository.findDistinctBorrowedTitles(pageable);
+    }
 
+    // aggregated in the database; most borrowed titles first, all titles when top is null
+    public Map<String, Long> getBookTitleToBorrowCount(Integer top) {
+        Limit limit = top == null ? Limit.unlimited() : Limit.of(top);
+        return borrowingRepository.countBorrowingsByTitle(limit).stream()
+                .collect(Collectors.toMap(
+                        TitleBorrowCount::getTitle,
+                        TitleBorrowCount::getBorrowCount,
+                        (a, b) -> a,
+                        LinkedHashMap::new
+                ));
+    }
 }
@@ -0,0 +1,90 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.dto.MemberResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+// ETags of the catalog endpoints, built only from what is persisted, so every instance gives the same data
+// the same tag. An entity's tag is its @Version plus the counter its response shows that moves without a
+// version bump (a book's available copies, a member's active loans), taken from whatever the lookup returns.
+// A list's tag is its catalog's change counter (catalog_version): every write bumps it in its own transaction,
+// so the list endpoints answer 304 from one small read, before any page is queried.
+@Component
+public class CatalogVersions {
+
+    static final String BOOKS = "books";
+    static final String MEMBERS = "members";
+    // rows per catalog in catalog_version
+    private static final int SHARDS = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogVersions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // books, their amounts or copies changed; only in the writer's transaction, so a rollback takes the bump back
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void booksChanged() {
+        bump(BOOKS);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void membersChanged() {
+        bump(MEMBERS);
+    }
+
+    // tags every page of the list; a write anywhere in the catalog moves all of them
+    public String booksTag() {
+        return quoted(BOOKS + "-" + version(BOOKS));
+    }
+
+    public String membersTag() {
+        return quoted(MEMBERS + "-" + version(MEMBERS));
+    }
+
+    public static String bookTag(BookResponse book) {
+        return quoted(book.getId() + "-" + book.getVersion() + "-" + book.getAvailableCopies());
+    }
+
+    public static String memberTag(MemberResponse member) {
+        return quoted(member.getId() + "-" + member.getVersion() + "-" + member.getActiveLoans());
+    }
+
+    // If-None-Match holds one or more tags, weak or strong, or "*"
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void bump(String catalog) {
+        jdbcTemplate.update("update catalog_version set version = version + 1 where catalog = ? and shard = ?",
+                catalog, ThreadLocalRandom.current().nextInt(SHARDS));
+    }
+
+    private long version(String catalog) {
+        Long sum = jdbcTemplate.queryForObject("select sum(version) from catalog_version where catalog = ?",
+                Long.class, catalog);
+        return sum == null ? 0 : sum;
+    }
+
+    private static String quoted(String value) {
+        return "\"" + value + "\"";
+    }
+}
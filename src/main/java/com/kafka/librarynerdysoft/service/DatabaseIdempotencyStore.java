@@ -0,0 +1,83 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+// Keys shared by every instance through the idempotency_key table: the primary key decides which instance
+// claims a key. Runs outside any transaction, so a duplicate key error doesn't abort anything else.
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration inFlightTtl;
+    // finished responses never change, so replays of recent ones skip the database
+    private final Cache<String, StoredResponse> completed;
+
+    public DatabaseIdempotencyStore(JdbcTemplate jdbcTemplate, long maxEntries, Duration ttl, Duration inFlightTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.inFlightTtl = inFlightTtl;
+        this.completed = Caffeine.newBuilder().maximumSize(maxEntries).expireAfterWrite(ttl).build();
+    }
+
+    // a fresh key costs one insert; an expired row under the key is removed and the insert tried once more
+    @Override
+    public Optional<StoredResponse> claim(String key, String fingerprint) {
+        StoredResponse cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                jdbcTemplate.update("insert into idempotency_key (id, fingerprint, status, expires_at) values (?, ?, 0, ?)",
+                        key, fingerprint, Timestamp.valueOf(now.plus(inFlightTtl)));
+                return Optional.empty();
+            } catch (DuplicateKeyException e) {
+                if (jdbcTemplate.update("delete from idempotency_key where id = ? and expires_at < ?", key, Timestamp.valueOf(now)) == 0) {
+                    Optional<StoredResponse> existing = find(key);
+                    existing.filter(StoredResponse::isComplete).ifPresent(response -> completed.put(key, response));
+                    // released between our insert and the lookup; the client retries after the 409
+                    return Optional.of(existing.orElse(StoredResponse.inFlight(fingerprint)));
+                }
+            }
+        }
+        return Optional.of(StoredResponse.inFlight(fingerprint));
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        jdbcTemplate.update("update idempotency_key set status = ?, content_type = ?, location = ?, body = ?, expires_at = ? where id = ?",
+                response.status(), response.contentType(), response.location(), response.body(),
+                Timestamp.valueOf(LocalDateTime.now().plus(ttl)), key);
+        completed.put(key, response);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update("delete from idempotency_key where id = ? and status = 0", key);
+    }
+
+    @Scheduled(fixedDelayString = "${library.idempotency.purge-interval-ms:600000}")
+    public int purgeExpired() {
+        return jdbcTemplate.update("delete from idempotency_key where expires_at < ?", Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private Optional<StoredResponse> find(String key) {
+        List<StoredResponse> rows = jdbcTemplate.query(
+                "select fingerprint, status, content_type, location, body from idempotency_key where id = ?",
+                (rs, rowNum) -> new StoredResponse(rs.getString("fingerprint"), rs.getInt("status"),
+                        rs.getString("content_type"), rs.getString("location"), rs.getBytes("body")),
+                key);
+        return rows.stream().findFirst();
+    }
+}
@@ -0,0 +1,13 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.kafka.librarynerdysoft.dto.CirculationEvent;
+
+import java.util.List;
+
+// Where OutboxPublisher delivers circulation events: the local MappedEventLog, or a broker client
+// picked with library.outbox.sink. publish must only return once the events are durable, because the
+// outbox rows are deleted right after; a failure leaves them in the outbox for the next attempt.
+public interface EventSink {
+
+    void publish(List<CirculationEvent> events);
+}
@@ -0,0 +1,76 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.kafka.librarynerdysoft.dto.BorrowingExportRow;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+    // rows between persistence context clears and output flushes
+    private static final int CHUNK_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final MemberRepository memberRepository;
+    private final BorrowingRepository borrowingRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter writer;
+
+    public ExportService(BookRepository bookRepository, MemberRepository memberRepository,
+                         BorrowingRepository borrowingRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.memberRepository = memberRepository;
+        this.borrowingRepository = borrowingRepository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    public long exportBooks(OutputStream out) throws IOException {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            return writeNdjson(books, out);
+        }
+    }
+
+    public long exportMembers(OutputStream out) throws IOException {
+        try (Stream<Member> members = memberRepository.streamAll()) {
+            return writeNdjson(members, out);
+        }
+    }
+
+    public long exportBorrowings(OutputStream out) throws IOException {
+        try (Stream<BorrowingExportRow> borrowings = borrowingRepository.streamAllForExport()) {
+            return writeNdjson(borrowings, out);
+        }
+    }
+
+    // one JSON document per line; rows are written as they arrive from the cursor
+    private <T> long writeNdjson(Stream<T> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writer.writeValue(out, iterator.next());
+            out.write('\n');
+            if (++count % CHUNK_SIZE == 0) {
+                // drop already written entities so memory stays flat for any table size
+                entityManager.clear();
+                out.flush();
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
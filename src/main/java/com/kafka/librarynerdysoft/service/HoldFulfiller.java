@@ -0,0 +1,68 @@
+package com.kafka.librarynerdysoft.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Turns waiting holds into loans off the request path. A committed return wakes it right away;
+// the periodic sweep picks up stock that arrives any other way (new copies, imports) and anything
+// a failed run left behind. Each batch is one transaction in BorrowingService.fulfilHolds.
+@Component
+public class HoldFulfiller {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HoldFulfiller.class);
+
+    private final BorrowingService borrowingService;
+    private final TaskScheduler taskScheduler;
+
+    // set while a wake-up is scheduled, so a burst of returns triggers a single run
+    private final AtomicBoolean wakeScheduled = new AtomicBoolean();
+    // one run at a time; a lock rather than synchronized, so a virtual thread waiting on JDBC inside it
+    // doesn't pin its carrier
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Value("${library.holds.batch-size:100}")
+    private int batchSize;
+
+    public HoldFulfiller(BorrowingService borrowingService, TaskScheduler taskScheduler) {
+        this.borrowingService = borrowingService;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @TransactionalEventListener
+    public void onStockReleased(StockReleasedEvent event) {
+        if (wakeScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                wakeScheduled.set(false);
+                fulfil();
+            }, Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.holds.sweep-interval-ms:1000}")
+    public void sweep() {
+        fulfil();
+    }
+
+    // a full batch means more holds may be ready
+    void fulfil() {
+        running.lock();
+        try {
+            while (borrowingService.fulfilHolds(batchSize) == batchSize) {
+                LOGGER.debug("Fulfilled a full batch of {} holds, running another", batchSize);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Hold fulfilment failed, the next sweep retries it", e);
+        } finally {
+            running.unlock();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.kafka.librarynerdysoft.config.MetricsConfig;
+import com.kafka.librarynerdysoft.dto.HoldResponse;
+import com.kafka.librarynerdysoft.entity.Hold;
+import com.kafka.librarynerdysoft.entity.HoldStatus;
+import com.kafka.librarynerdysoft.repository.HoldRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+@Transactional
+public class HoldService {
+
+    private final HoldRepository holdRepository;
+    private final MemberRepository memberRepository;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CatalogVersions catalogVersions;
+
+    // open status streams per hold id; only holds closed on this instance are pushed,
+    // clients of other instances see the change when they reconnect or poll
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public HoldService(HoldRepository holdRepository, MemberRepository memberRepository, MeterRegistry meterRegistry,
+                       ApplicationEventPublisher eventPublisher, CatalogVersions catalogVersions) {
+        this.holdRepository = holdRepository;
+        this.memberRepository = memberRepository;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersions = catalogVersions;
+    }
+
+    @Transactional(readOnly = true)
+    public HoldResponse getHold(Long id) {
+        return toResponse(findHold(id));
+    }
+
+    // gives the member's loan slot back; only a waiting hold can be cancelled
+    public HoldResponse cancelHold(Long id) {
+        Hold hold = findHold(id);
+        LocalDateTime now = LocalDateTime.now();
+        if (holdRepository.close(id, HoldStatus.CANCELLED, now) == 0) {
+            throw new RuntimeException("Hold is no longer waiting");
+        }
+        memberRepository.decrementActiveLoans(hold.getMember().getId());
+        catalogVersions.membersChanged();
+        meterRegistry.counter(BorrowingService.HOLDS, "event", "cancelled").increment();
+        eventPublisher.publishEvent(new HoldsClosedEvent(List.of(id)));
+        // the loaded entity predates the bulk update
+        HoldResponse response = HoldResponse.of(hold, null);
+        response.setStatus(HoldStatus.CANCELLED);
+        response.setClosedAt(now);
+        return response;
+    }
+
+    // Sends the current status, then the closing one once the hold is fulfilled or cancelled.
+    // Subscribed before the status is read, so a hold closing in between is not missed.
+    @Transactional(readOnly = true)
+    public SseEmitter streamHold(Long id) {
+        SseEmitter emitter = new SseEmitter();
+        subscribers.computeIfAbsent(id, key -> new CopyOnWriteArraySet<>()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(id, emitter));
+        emitter.onTimeout(() -> unsubscribe(id, emitter));
+        emitter.onError(e -> unsubscribe(id, emitter));
+        try {
+            send(emitter, getHold(id));
+        } catch (EntityNotFoundException e) {
+            unsubscribe(id, emitter);
+            throw e;
+        }
+        return emitter;
+    }
+
+    // runs after the fulfilling transaction committed, so its own read sees the new status
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onHoldsClosed(HoldsClosedEvent event) {
+        List<Long> watched = event.holdIds().stream().filter(subscribers::containsKey).toList();
+        if (!watched.isEmpty()) {
+            holdRepository.findAllById(watched).forEach(hold -> notifySubscribers(toResponse(hold)));
+        }
+    }
+
+    private void notifySubscribers(HoldResponse response) {
+        Set<SseEmitter> emitters = subscribers.get(response.getId());
+        if (emitters != null) {
+            emitters.forEach(emitter -> send(emitter, response));
+        }
+    }
+
+    // a closed hold won't change again, so its stream ends with it
+    private void send(SseEmitter emitter, HoldResponse response) {
+        try {
+            emitter.send(SseEmitter.event().name("hold").data(response));
+            if (response.getStatus() != HoldStatus.WAITING) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client went away
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Long id, SseEmitter emitter) {
+        subscribers.computeIfPresent(id, (key, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private Hold findHold(Long id) {
+        return holdRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Hold Not Found"));
+    }
+
+    private HoldResponse toResponse(Hold hold) {
+        Long position = hold.getStatus() == HoldStatus.WAITING
+                ? holdRepository.countAhead(hold.getId())
+                : null;
+        return HoldResponse.of(hold, position);
+    }
+}
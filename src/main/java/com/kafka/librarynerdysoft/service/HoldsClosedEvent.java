@@ -0,0 +1,7 @@
+package com.kafka.librarynerdysoft.service;
+
+import java.util.Collection;
+
+// these holds were fulfilled or cancelled; listened to after commit
+public record HoldsClosedEvent(Collection<Long> holdIds) {
+}
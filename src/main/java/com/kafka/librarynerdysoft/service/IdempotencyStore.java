@@ -0,0 +1,28 @@
+package com.kafka.librarynerdysoft.service;
+
+import java.util.Optional;
+
+// Responses to requests sent with an Idempotency-Key, so a retry is answered without running the request again.
+public interface IdempotencyStore {
+
+    // Claims the key for a new request. Empty when the caller now owns the key and has to complete or release it;
+    // otherwise what is stored under it: a finished response, or the marker of a request still in flight.
+    Optional<StoredResponse> claim(String key, String fingerprint);
+
+    void complete(String key, StoredResponse response);
+
+    // drops an unfinished claim, so a retry runs the request again
+    void release(String key);
+
+    // fingerprint identifies the request the key was first used with; status 0 marks a request still in flight
+    record StoredResponse(String fingerprint, int status, String contentType, String location, byte[] body) {
+
+        public static StoredResponse inFlight(String fingerprint) {
+            return new StoredResponse(fingerprint, 0, null, null, null);
+        }
+
+        public boolean isComplete() {
+            return status != 0;
+        }
+    }
+}
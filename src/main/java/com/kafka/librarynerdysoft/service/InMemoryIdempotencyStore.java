@@ -0,0 +1,38 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Bounded Caffeine map local to this instance; a claim is a single putIfAbsent. Retries that land on another
+// instance run again, use DatabaseIdempotencyStore when several instances sit behind one load balancer.
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, StoredResponse> responses;
+
+    // an abandoned in-flight marker (the instance died mid-request) only blocks its key for inFlightTtl
+    public InMemoryIdempotencyStore(long maxEntries, Duration ttl, Duration inFlightTtl) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(Expiry.writing((String key, StoredResponse response) -> response.isComplete() ? ttl : inFlightTtl))
+                .build();
+    }
+
+    @Override
+    public Optional<StoredResponse> claim(String key, String fingerprint) {
+        return Optional.ofNullable(responses.asMap().putIfAbsent(key, StoredResponse.inFlight(fingerprint)));
+    }
+
+    @Override
+    public void complete(String key, StoredResponse response) {
+        responses.put(key, response);
+    }
+
+    @Override
+    public void release(String key) {
+        responses.invalidate(key);
+    }
+}
@@ -0,0 +1,236 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.kafka.librarynerdysoft.dto.CirculationEvent;
+import com.kafka.librarynerdysoft.entity.CirculationEventType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only event log on local disk: fixed-size records in memory-mapped segment files named after the
+// sequence number of their first record. A fixed record size turns a read into a seek, sequence n sits at
+// (n - base) * RECORD_SIZE in its segment. Appends are forced to disk before publish returns. On open the
+// newest segment is scanned up to the first record with a wrong sequence or checksum, a torn write from a
+// crash, and appending continues there. Readers don't take the writer's lock and only see published records.
+public class MappedEventLog implements EventSink, AutoCloseable {
+
+    // sequence, event id, type, book id, member id, occurred-at in epoch micros, CRC32 of those 41 bytes, padding
+    static final int RECORD_SIZE = 48;
+    private static final int CHECKSUMMED = 41;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("(\\d{20})\\.log");
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final ConcurrentNavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // writer state, guarded by writer; a ReentrantLock because appends wait on force() and the publisher may
+    // run on a virtual thread
+    private final ReentrantLock writer = new ReentrantLock();
+    private Segment active;
+    private int position;
+
+    // one past the last durable record; readers stop here
+    private volatile long nextSequence;
+
+    public MappedEventLog(Path directory, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.recordsPerSegment = Math.clamp(segmentBytes / RECORD_SIZE, 1, Integer.MAX_VALUE / RECORD_SIZE);
+        Files.createDirectories(directory);
+        lockChannel = FileChannel.open(directory.resolve("log.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        lock = tryLock(lockChannel);
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Event log " + directory + " is already open");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    long base = Long.parseLong(name.group(1));
+                    segments.put(base, Segment.open(file, base));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            active = createSegment(1);
+            position = 0;
+        } else {
+            active = segments.lastEntry().getValue();
+            position = active.validRecords();
+        }
+        nextSequence = active.base + position;
+    }
+
+    // assigns each event the next sequence number
+    @Override
+    public void publish(List<CirculationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        writer.lock();
+        try {
+            int from = position;
+            for (CirculationEvent event : events) {
+                if (position == active.capacity) {
+                    active.force(from, position);
+                    active = createSegment(active.base + position);
+                    position = 0;
+                    from = 0;
+                }
+                long sequence = active.base + position;
+                active.write(position, sequence, event);
+                event.setSequence(sequence);
+                position++;
+            }
+            active.force(from, position);
+            nextSequence = active.base + position;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    // up to limit events with a sequence greater than after, in order
+    public List<CirculationEvent> read(long after, int limit) {
+        long end = nextSequence;
+        List<CirculationEvent> events = new ArrayList<>();
+        // checked before adding one, which would wrap Long.MAX_VALUE around and replay the whole log
+        if (after >= end - 1) {
+            return events;
+        }
+        for (long sequence = Math.max(after, 0) + 1; sequence < end && events.size() < limit; sequence++) {
+            Map.Entry<Long, Segment> segment = segments.floorEntry(sequence);
+            events.add(segment.getValue().read((int) (sequence - segment.getKey())));
+        }
+        return events;
+    }
+
+    // 0 while the log is empty
+    public long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+            lock.release();
+            lockChannel.close();
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    private Segment createSegment(long base) {
+        try {
+            Segment segment = Segment.create(directory.resolve(String.format("%020d.log", base)), base, recordsPerSegment);
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // null when another process holds the directory; another log in this JVM shows up as an exception
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static final class Segment {
+        private final long base;
+        private final int capacity;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Segment(long base, int capacity, FileChannel channel) throws IOException {
+            this.base = base;
+            this.capacity = capacity;
+            this.channel = channel;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        }
+
+        static Segment create(Path file, long base, int capacity) throws IOException {
+            return new Segment(base, capacity, FileChannel.open(file,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        }
+
+        static Segment open(Path file, long base) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(base, (int) (channel.size() / RECORD_SIZE), channel);
+        }
+
+        // records written before a crash, up to the first torn or never-written slot
+        int validRecords() {
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = slot * RECORD_SIZE;
+                if (buffer.getLong(offset) != base + slot || buffer.getInt(offset + CHECKSUMMED) != checksum(offset)) {
+                    return slot;
+                }
+            }
+            return capacity;
+        }
+
+        void write(int slot, long sequence, CirculationEvent event) {
+            int offset = slot * RECORD_SIZE;
+            LocalDateTime occurredAt = event.getOccurredAt();
+            buffer.putLong(offset, sequence)
+                    .putLong(offset + 8, event.getEventId())
+                    .put(offset + 16, (byte) event.getType().ordinal())
+                    .putLong(offset + 17, event.getBookId())
+                    .putLong(offset + 25, event.getMemberId())
+                    .putLong(offset + 33, occurredAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + occurredAt.getNano() / 1_000)
+                    .putInt(offset + CHECKSUMMED, checksum(offset));
+        }
+
+        CirculationEvent read(int slot) {
+            int offset = slot * RECORD_SIZE;
+            long micros = buffer.getLong(offset + 33);
+            return new CirculationEvent(
+                    buffer.getLong(offset),
+                    buffer.getLong(offset + 8),
+                    CirculationEventType.values()[buffer.get(offset + 16)],
+                    buffer.getLong(offset + 17),
+                    buffer.getLong(offset + 25),
+                    LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                            (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC));
+        }
+
+        void force(int fromSlot, int toSlot) {
+            if (toSlot > fromSlot) {
+                buffer.force(fromSlot * RECORD_SIZE, (toSlot - fromSlot) * RECORD_SIZE);
+            }
+        }
+
+        private int checksum(int offset) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset, CHECKSUMMED));
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -1,60 +1,77 @@
 package com.kafka.librarynerdysoft.service;
 
+import com.kafka.librarynerdysoft.config.MetricsConfig;
+import com.kafka.librarynerdysoft.config.RetryOnConflict;
 import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
+import com.kafka.librarynerdysoft.dto.CursorPage;
+import com.kafka.librarynerdysoft.dto.MemberResponse;
 import com.kafka.librarynerdysoft.dto.MemberCreatedRequest;
 import com.kafka.librarynerdysoft.entity.Book;
 import com.kafka.librarynerdysoft.entity.Member;
-import com.kafka.librarynerdysoft.repository.BorrowingRepository;
 import com.kafka.librarynerdysoft.repository.MemberRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @AllArgsConstructor
 public class MemberService {
 
     private final MemberRepository memberRepository;
-    private final BorrowingRepository borrowingRepository;
+    private final CatalogVersions catalogVersions;
 
-    public List<Member> getAllMembers() {
-        return memberRepository.findAll();
+    public CursorPage<MemberResponse> getMembers(Long after, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        List<MemberResponse> rows = memberRepository.findPage(after == null ? 0L : after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, MemberResponse::getId);
     }
 
     public Optional<Member> getMemberById(Long id) {
         return memberRepository.findById(id);
     }
 
+    @Transactional
     public Member createMember(MemberCreatedRequest request) {
         Member newMember = new Member();
         newMember.setName(request.getName());
         newMember.setMemberDate(LocalDateTime.now());
-        return memberRepository.save(newMember);
+        Member saved = memberRepository.save(newMember);
+        catalogVersions.membersChanged();
+        return saved;
     }
 
+    @Transactional
+    @RetryOnConflict
     public Optional<Member> updateMember(Long id, MemberCreatedRequest request){
         Optional<Member> optionalMember = memberRepository.findById(id);
         if (optionalMember.isPresent()) {
             Member member = optionalMember.get();
             member.setName(request.getName());
-            return Optional.of(memberRepository.save(member));
+            Member saved = memberRepository.save(member);
+            catalogVersions.membersChanged();
+            return Optional.of(saved);
         } else {
             return Optional.empty();
         }
     }
 
+    @Transactional
     public void deleteMember(Long id) {
-        Optional<Member> memberToDelete = memberRepository.findById(id);
-        if (memberToDelete.isEmpty()){
-            throw new EntityNotFoundException("Member with id " + id + " not found");
-        }
-        if (borrowingRepository.countByMember(memberToDelete.get()) > 0) {
+        // one guarded delete, the lookup only runs to explain a refusal
+        if (memberRepository.deleteIfNoActiveLoans(id) == 0) {
+            if (!memberRepository.existsById(id)) {
+                throw new EntityNotFoundException("Member with id " + id + " not found");
+            }
             throw new RuntimeException("Member with id " + id + " is borrowing a book");
         }
-        memberRepository.deleteById(id);
+        catalogVersions.membersChanged();
     }
 }
@@ -0,0 +1,82 @@
+package com.kafka.librarynerdysoft.service;
+
+import com.kafka.librarynerdysoft.dto.CirculationEvent;
+import com.kafka.librarynerdysoft.entity.OutboxEvent;
+import com.kafka.librarynerdysoft.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Moves committed borrow/return events from the outbox table to the EventSink, oldest first by the database
+// clock, so an event never reaches the sink before one it depends on. Each batch is one transaction: the rows
+// stay locked (publishers on other instances wait) until the sink has accepted them and they are deleted.
+// A crash in between publishes them again, never loses them.
+@Component
+public class OutboxPublisher {
+    public static final String PUBLISHED = "library.outbox.published";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventSink eventSink;
+    private final TransactionTemplate transaction;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Value("${library.outbox.batch-size:500}")
+    private int batchSize;
+
+    public OutboxPublisher(OutboxEventRepository outboxEventRepository, EventSink eventSink,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventSink = eventSink;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${library.outbox.poll-interval-ms:500}")
+    public void poll() {
+        publishPending();
+    }
+
+    // a full batch means more events may be waiting; returns the number published
+    public int publishPending() {
+        running.lock();
+        try {
+            int total = 0;
+            try {
+                int published;
+                do {
+                    published = publishBatch();
+                    total += published;
+                } while (published == batchSize);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Publishing circulation events failed, the next poll retries them", e);
+            }
+            return total;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private int publishBatch() {
+        return transaction.execute(status -> {
+            List<OutboxEvent> batch = outboxEventRepository.findBatchForUpdate(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+            eventSink.publish(batch.stream().map(CirculationEvent::of).toList());
+            outboxEventRepository.deleteAllByIdInBatch(batch.stream().map(OutboxEvent::getId).toList());
+            meterRegistry.counter(PUBLISHED).increment(batch.size());
+            return batch.size();
+        });
+    }
+}
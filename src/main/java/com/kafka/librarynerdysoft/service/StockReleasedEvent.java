@@ -0,0 +1,7 @@
+package com.kafka.librarynerdysoft.service;
+
+import java.util.Collection;
+
+// copies of these titles went back on the shelf; listened to after commit
+public record StockReleasedEvent(Collection<Long> bookIds) {
+}
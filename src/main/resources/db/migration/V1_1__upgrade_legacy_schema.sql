@@ -0,0 +1,11 @@
+-- Databases baselined from ddl-auto=update skip V1 and may predate copy-level inventory;
+-- a no-op on databases created by V1
+create table if not exists book_copy (
+    id bigint not null,
+    book_id bigint not null,
+    available boolean not null,
+    primary key (id),
+    constraint book_copy_book_fk foreign key (book_id) references book
+);
+
+alter table borrowing add column if not exists copy_id bigint constraint borrowing_copy_fk references book_copy;
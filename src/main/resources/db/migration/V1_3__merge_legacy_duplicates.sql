@@ -0,0 +1,34 @@
+-- ddl-auto=update never created the unique indexes V2 adds, so a baselined database may hold the same
+-- title/author more than once, or the same member borrowing a title twice; V2 would fail on either.
+-- Duplicate titles are merged into the row with the lowest id: stock is summed, loans and copies follow.
+-- A second loan of the same title by the same member is closed and its copy goes back on the shelf.
+-- Null titles or authors never clash in a unique index, so they are left alone. A no-op on clean databases.
+update book set amount = (select sum(d.amount) from book d where d.title = book.title and d.author = book.author)
+where exists (select 1 from book d where d.title = book.title and d.author = book.author and d.id > book.id)
+  and not exists (select 1 from book d where d.title = book.title and d.author = book.author and d.id < book.id);
+
+update borrowing set book_id = (select min(s.id) from book s join book d on s.title = d.title and s.author = d.author
+                                where d.id = borrowing.book_id)
+where book_id in (select d.id from book d
+                  where exists (select 1 from book s where s.title = d.title and s.author = d.author and s.id < d.id));
+
+update book_copy set book_id = (select min(s.id) from book s join book d on s.title = d.title and s.author = d.author
+                                where d.id = book_copy.book_id)
+where book_id in (select d.id from book d
+                  where exists (select 1 from book s where s.title = d.title and s.author = d.author and s.id < d.id));
+
+delete from book
+where exists (select 1 from book s where s.title = book.title and s.author = book.author and s.id < book.id);
+
+update book set amount = amount + (select count(*) from borrowing b where b.book_id = book.id
+    and exists (select 1 from borrowing e where e.member_id = b.member_id and e.book_id = b.book_id and e.id < b.id))
+where id in (select b.book_id from borrowing b
+             where exists (select 1 from borrowing e where e.member_id = b.member_id and e.book_id = b.book_id and e.id < b.id));
+
+update book_copy set available = true
+where id in (select b.copy_id from borrowing b
+             where exists (select 1 from borrowing e where e.member_id = b.member_id and e.book_id = b.book_id and e.id < b.id));
+
+delete from borrowing
+where exists (select 1 from borrowing e where e.member_id = borrowing.member_id and e.book_id = borrowing.book_id
+              and e.id < borrowing.id);
@@ -0,0 +1,41 @@
+-- Schema as previously generated by ddl-auto=update
+create sequence book_seq start with 1 increment by 50;
+create sequence member_seq start with 1 increment by 50;
+create sequence book_copy_seq start with 1 increment by 50;
+create sequence borrowing_seq start with 1 increment by 50;
+
+create table book (
+    id bigint not null,
+    title varchar(255),
+    author varchar(255),
+    amount integer not null,
+    primary key (id)
+);
+
+create table member (
+    id bigint not null,
+    name varchar(255),
+    member_date timestamp(6),
+    active_loans integer default 0 not null,
+    primary key (id),
+    constraint member_active_loans_check check (active_loans >= 0)
+);
+
+create table book_copy (
+    id bigint not null,
+    book_id bigint not null,
+    available boolean not null,
+    primary key (id),
+    constraint book_copy_book_fk foreign key (book_id) references book
+);
+
+create table borrowing (
+    id bigint not null,
+    member_id bigint not null,
+    book_id bigint not null,
+    copy_id bigint,
+    primary key (id),
+    constraint borrowing_member_fk foreign key (member_id) references member,
+    constraint borrowing_book_fk foreign key (book_id) references book,
+    constraint borrowing_copy_fk foreign key (copy_id) references book_copy
+);
@@ -0,0 +1,18 @@
+-- one loan per (member, book); serves findByBookAndMember, existsByBookIdAndMemberId and the per-member queries
+create unique index borrowing_member_book_uk on borrowing (member_id, book_id);
+
+-- countByBook, deleteAllByBook and the per-title reports
+create index borrowing_book_idx on borrowing (book_id);
+
+-- findByTitleAndAuthor, findByTitle, findAllByTitleIn and the createBook upsert
+create unique index book_title_author_uk on book (title, author);
+
+-- findByName, existsByName
+create index member_name_idx on member (name);
+
+-- free copy lookups for copy-level inventory
+create index book_copy_book_available_idx on book_copy (book_id, available);
+
+-- databases baselined from ddl-auto=update may predate the loan counter
+alter table member add column if not exists active_loans integer default 0 not null;
+update member set active_loans = (select count(*) from borrowing b where b.member_id = member.id);
@@ -0,0 +1,4 @@
+-- optimistic locking: Hibernate checks and bumps the version on every entity update;
+-- the bulk stock statements on book bump it as well, the member loan counters don't touch it
+alter table book add column version bigint default 0 not null;
+alter table member add column version bigint default 0 not null;
@@ -0,0 +1,25 @@
+-- waitlist for out-of-stock titles; rows stay after they are fulfilled or cancelled so patrons can look them up
+create sequence book_hold_seq start with 1 increment by 50;
+
+create table book_hold (
+    id bigint not null,
+    book_id bigint not null,
+    member_id bigint not null,
+    status varchar(16) not null,
+    created_at timestamp(6) not null,
+    closed_at timestamp(6),
+    primary key (id),
+    -- the guarded deletes of book and member refuse while a hold is waiting, so only closed holds go with them
+    constraint book_hold_book_fk foreign key (book_id) references book on delete cascade,
+    constraint book_hold_member_fk foreign key (member_id) references member on delete cascade,
+    constraint book_hold_status_check check (status in ('WAITING', 'FULFILLED', 'CANCELLED'))
+);
+
+-- a title's queue in order and the "anyone waiting?" check on borrow
+create index book_hold_book_status_idx on book_hold (book_id, status, created_at);
+
+-- the fulfiller's scan for the oldest waiting holds
+create index book_hold_status_idx on book_hold (status, created_at);
+
+-- one waiting hold per member and title
+create index book_hold_member_idx on book_hold (member_id, book_id);
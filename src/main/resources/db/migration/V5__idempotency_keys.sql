@@ -0,0 +1,15 @@
+-- responses to requests sent with an Idempotency-Key, used when library.idempotency.store=database;
+-- id is "<method> <path> <key>", status 0 while the first request is still running
+create table idempotency_key (
+    id varchar(512) not null,
+    fingerprint varchar(64) not null,
+    status integer not null,
+    content_type varchar(255),
+    location varchar(2048),
+    body bytea,
+    expires_at timestamp(6) not null,
+    primary key (id)
+);
+
+-- the purge of expired keys
+create index idempotency_key_expires_idx on idempotency_key (expires_at);
@@ -0,0 +1,14 @@
+-- borrow and return events written in the same transaction as the loan change; OutboxPublisher moves them
+-- to the event sink and deletes them, so the table only holds what has not been published yet.
+-- No foreign keys: an event stays valid after its book or member is gone.
+create sequence circulation_outbox_seq start with 1 increment by 50;
+
+create table circulation_outbox (
+    id bigint not null,
+    type varchar(16) not null,
+    book_id bigint not null,
+    member_id bigint not null,
+    occurred_at timestamp(6) not null,
+    primary key (id),
+    constraint circulation_outbox_type_check check (type in ('BORROWED', 'RETURNED'))
+);
@@ -0,0 +1,15 @@
+-- change counters behind the list ETags (see CatalogVersions). Every write to books or members bumps one row
+-- of its catalog in the same transaction, so the sum of a catalog's rows moves exactly when a write commits.
+-- Spread over shards so concurrent borrows rarely queue on the same row lock.
+create table catalog_version (
+    catalog varchar(16) not null,
+    shard integer not null,
+    version bigint default 0 not null,
+    primary key (catalog, shard)
+);
+
+insert into catalog_version (catalog, shard) values
+    ('books', 0), ('books', 1), ('books', 2), ('books', 3),
+    ('books', 4), ('books', 5), ('books', 6), ('books', 7),
+    ('members', 0), ('members', 1), ('members', 2), ('members', 3),
+    ('members', 4), ('members', 5), ('members', 6), ('members', 7);
@@ -0,0 +1,13 @@
+-- Databases from the ddl-auto=update days took their ids from IDENTITY columns, or from sequences Hibernate
+-- created at 1 next to the existing rows. Create the missing sequences and move each one past the highest id
+-- (and past any block already handed out), so the pooled generators never hand out a taken id.
+-- Fresh databases have empty tables and are left alone.
+create sequence if not exists book_seq start with 1 increment by 50;
+create sequence if not exists member_seq start with 1 increment by 50;
+create sequence if not exists book_copy_seq start with 1 increment by 50;
+create sequence if not exists borrowing_seq start with 1 increment by 50;
+
+select setval('book_seq', greatest(max(id), (select last_value from book_seq))) from book having max(id) is not null;
+select setval('member_seq', greatest(max(id), (select last_value from member_seq))) from member having max(id) is not null;
+select setval('book_copy_seq', greatest(max(id), (select last_value from book_copy_seq))) from book_copy having max(id) is not null;
+select setval('borrowing_seq', greatest(max(id), (select last_value from borrowing_seq))) from borrowing having max(id) is not null;
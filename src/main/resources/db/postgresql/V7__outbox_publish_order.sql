@@ -0,0 +1,7 @@
+-- Pooled ids are handed out per instance in blocks, so id order is not the order events happened in. The
+-- database clock at insert is: an event that depends on another (the last copy borrowed right after its
+-- return) can only be written once the first has committed, so it always gets a later recorded_at.
+-- clock_timestamp(), not now(), which is fixed at the start of the transaction.
+alter table circulation_outbox add column recorded_at timestamp(6) not null default clock_timestamp();
+
+create index circulation_outbox_recorded_at_idx on circulation_outbox (recorded_at, id);
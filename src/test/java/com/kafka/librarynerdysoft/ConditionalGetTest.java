@@ -0,0 +1,190 @@
+package com.kafka.librarynerdysoft;
+
+import com.kafka.librarynerdysoft.config.QueryCountFilter;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.service.BookService;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Conditional GET Tests")
+class ConditionalGetTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private BookService bookService;
+
+    private Book book;
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Conditional Title");
+        book.setAuthor("Conditional Author");
+        book.setAmount(2);
+        book = bookRepository.save(book);
+        member = new Member();
+        member.setName("Conditional Reader");
+        member.setMemberDate(LocalDateTime.now());
+        member = memberRepository.save(member);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        borrowingRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should answer a cached book's matching If-None-Match with 304 without running a statement")
+    void shouldAnswerNotModifiedWithoutStatements() {
+        // Given: the first lookup caches the book
+        long requests = bookLookups().count();
+        ResponseEntity<String> first = get("/books/" + book.getId(), null);
+        String etag = first.getHeaders().getETag();
+        // recorded once the filter chain unwinds, which may be after the client has the response
+        await().atMost(Duration.ofSeconds(5)).until(() -> bookLookups().count() == requests + 1);
+        double statements = bookLookups().totalAmount();
+
+        // When
+        ResponseEntity<String> second = get("/books/" + book.getId(), etag);
+
+        // Then
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(etag).isNotNull();
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(second.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(second.getBody()).isNull();
+        await().atMost(Duration.ofSeconds(5)).until(() -> bookLookups().count() == requests + 2);
+        assertThat(bookLookups().totalAmount()).isEqualTo(statements);
+    }
+
+    @Test
+    @DisplayName("Should answer a list's matching If-None-Match with 304 before reading the page")
+    void shouldAnswerListNotModifiedWithoutReadingPage() {
+        // Given
+        String etag = get("/books", null).getHeaders().getETag();
+        clearInvocations(bookService);
+
+        // When
+        ResponseEntity<String> revalidated = get("/books?after=0&limit=5", etag);
+
+        // Then
+        assertThat(etag).isNotNull();
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(bookService, never()).getBooks(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should not answer a list 304 after another instance bumped the catalog")
+    void shouldSeeListWritesFromOtherInstances() {
+        // Given: another instance's write commits its bump to the shared counter rows
+        String etag = get("/books", null).getHeaders().getETag();
+        jdbcTemplate.update("update catalog_version set version = version + 1 where catalog = 'books' and shard = 5");
+
+        // When
+        ResponseEntity<String> revalidated = get("/books", etag);
+
+        // Then
+        assertThat(revalidated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(revalidated.getBody()).contains("Conditional Title");
+        assertThat(revalidated.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    @DisplayName("Should move the book, member and list ETags when a borrow changes them")
+    void shouldChangeTagsOnWrites() {
+        // Given
+        String bookTag = get("/books/" + book.getId(), null).getHeaders().getETag();
+        String memberTag = get("/members/" + member.getId(), null).getHeaders().getETag();
+        String listTag = get("/books", null).getHeaders().getETag();
+        assertThat(get("/books", listTag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        // When
+        borrowingService.borrowBook(book.getId(), member.getId());
+
+        // Then
+        ResponseEntity<String> bookAfter = get("/books/" + book.getId(), bookTag);
+        assertThat(bookAfter.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bookAfter.getBody()).contains("\"amount\":1");
+        assertThat(bookAfter.getHeaders().getETag()).isNotEqualTo(bookTag);
+        assertThat(get("/members/" + member.getId(), memberTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/books", listTag).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    // Helper methods
+    private DistributionSummary bookLookups() {
+        return DistributionSummary.builder(QueryCountFilter.QUERIES)
+                .tags("method", "GET", "uri", "/books/{id}")
+                .publishPercentileHistogram()
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry);
+    }
+
+    private ResponseEntity<String> get(String path, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
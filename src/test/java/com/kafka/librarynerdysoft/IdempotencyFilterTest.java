@@ -0,0 +1,133 @@
+package com.kafka.librarynerdysoft;
+
+import com.kafka.librarynerdysoft.config.IdempotencyFilter;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Idempotency filter Tests")
+class IdempotencyFilterTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Book book;
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Retried Title");
+        book.setAuthor("Retried Author");
+        book.setAmount(2);
+        book = bookRepository.save(book);
+        member = new Member();
+        member.setName("Retrying Reader");
+        member.setMemberDate(LocalDateTime.now());
+        member = memberRepository.save(member);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        borrowingRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should answer a retried borrow from the store without borrowing twice")
+    void shouldReplayRetriedBorrow() {
+        // When
+        ResponseEntity<String> first = send(HttpMethod.POST, "retry-1", book.getId());
+        ResponseEntity<String> retry = send(HttpMethod.POST, "retry-1", book.getId());
+
+        // Then
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getBody()).isEqualTo(first.getBody());
+        assertThat(retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(borrowingRepository.count()).isEqualTo(1);
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAmount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused for a different request")
+    void shouldRejectKeyReuse() {
+        // Given
+        send(HttpMethod.POST, "reused", book.getId());
+
+        // When
+        ResponseEntity<String> other = send(HttpMethod.POST, "reused", book.getId() + 1);
+
+        // Then
+        assertThat(other.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(borrowingRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should run a request again after a failed attempt")
+    void shouldNotKeepFailures() {
+        // Given
+        borrowingService.borrowBook(book.getId(), member.getId());
+        ResponseEntity<String> failed = send(HttpMethod.POST, "borrow-again", book.getId());
+        borrowingService.returnBook(book.getId(), member.getId());
+
+        // When
+        ResponseEntity<String> retried = send(HttpMethod.POST, "borrow-again", book.getId());
+
+        // Then
+        assertThat(failed.getStatusCode().is2xxSuccessful()).isFalse();
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retried.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(borrowingRepository.count()).isEqualTo(1);
+    }
+
+    private ResponseEntity<String> send(HttpMethod method, String key, Long bookId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set(IdempotencyFilter.HEADER, key);
+        String body = "{\"bookId\":" + bookId + ",\"memberId\":" + member.getId() + "}";
+        return restTemplate.exchange("/borrow", method, new HttpEntity<>(body, headers), String.class);
+    }
+}
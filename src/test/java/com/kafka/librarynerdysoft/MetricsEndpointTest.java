@@ -0,0 +1,58 @@
+package com.kafka.librarynerdysoft;
+
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@DisplayName("Metrics endpoint Tests")
+class MetricsEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should expose request, service, query, pool and Hibernate metrics for Prometheus")
+    void shouldExposePrometheusMetrics() {
+        // Given
+        Book book = new Book();
+        book.setTitle("Metered Title");
+        book.setAuthor("Metered Author");
+        book.setAmount(1);
+        Long id = bookRepository.save(book).getId();
+        assertThat(restTemplate.getForEntity("/books/" + id, String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // When
+        String scrape = restTemplate.getForObject("/actuator/prometheus", String.class);
+
+        // Then
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/books/{id}\"")
+                .containsPattern("library_service_seconds_bucket\\{class=\"com\\.kafka\\.librarynerdysoft\\.service\\.BookService\".*method=\"getBookById\"")
+                .containsPattern("library_http_queries_bucket\\{.*uri=\"/books/\\{id}\"")
+                .contains("hikaricp_connections_acquire_seconds_bucket")
+                .contains("hibernate_entities_loads")
+                .contains("cache_gets_total{cache=\"books\"");
+    }
+}
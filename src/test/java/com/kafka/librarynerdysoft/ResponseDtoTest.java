@@ -0,0 +1,118 @@
+package com.kafka.librarynerdysoft;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.librarynerdysoft.dto.BorrowBookRequest;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// open-in-view is off, so anything lazy left in a response body would fail to serialize here
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@DisplayName("Response DTO Tests")
+class ResponseDtoTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Book book;
+    private Member member;
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Projected Title");
+        book.setAuthor("Projected Author");
+        book.setAmount(2);
+        book = bookRepository.save(book);
+        member = new Member();
+        member.setName("Projected Reader");
+        member.setMemberDate(LocalDateTime.now());
+        member = memberRepository.save(member);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        borrowingRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should answer a borrow with the loan's ids instead of the lazy book and member")
+    void shouldReturnBorrowingIds() throws Exception {
+        // When
+        ResponseEntity<String> response = borrow();
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode body = objectMapper.readTree(response.getBody());
+        assertThat(body.get("id").asLong()).isPositive();
+        assertThat(body.get("bookId").asLong()).isEqualTo(book.getId());
+        assertThat(body.get("memberId").asLong()).isEqualTo(member.getId());
+        assertThat(body.has("book")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should serve book lists from projections with the same fields as a single book")
+    void shouldProjectBookLists() throws Exception {
+        // Given
+        borrow();
+
+        // When
+        JsonNode loans = objectMapper.readTree(
+                restTemplate.getForObject("/borrow/books/member/id/" + member.getId(), String.class));
+        JsonNode page = objectMapper.readTree(restTemplate.getForObject("/books", String.class));
+        JsonNode single = objectMapper.readTree(restTemplate.getForObject("/books/" + book.getId(), String.class));
+
+        // Then
+        assertThat(loans).hasSize(1);
+        assertThat(loans.get(0)).isEqualTo(single);
+        assertThat(page.get("items")).contains(single);
+        assertThat(single.get("amount").asInt()).isEqualTo(1);
+        // no copy-level inventory: the amount is what can be borrowed
+        assertThat(single.get("availableCopies").asInt()).isEqualTo(1);
+    }
+
+    // Helper methods
+    private ResponseEntity<String> borrow() {
+        BorrowBookRequest request = new BorrowBookRequest();
+        request.setBookId(book.getId());
+        request.setMemberId(member.getId());
+        return restTemplate.postForEntity("/borrow", request, String.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.kafka.librarynerdysoft.performance;
+
+import com.kafka.librarynerdysoft.dto.BatchItemResult;
+import com.kafka.librarynerdysoft.dto.BorrowBookRequest;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("perf")
+@DisplayName("Batch borrow/return benchmark")
+class BatchBorrowingBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchBorrowingBenchmarkTest.class);
+
+    private static final int BURST = 500;
+    private static final int BOOKS = 10;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private LibraryDataSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        seeder = new LibraryDataSeeder(jdbcTemplate, cacheManager);
+        seeder.seedBooks(BOOKS, BURST);
+        seeder.seedMembers(BURST);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        seeder.clear();
+    }
+
+    @Test
+    @DisplayName("Should borrow and return a 500-item burst and compare with single requests")
+    void shouldProcessBurstInBatch() {
+        // Given
+        List<BorrowBookRequest> burst = createBurst();
+
+        // When
+        long start = System.nanoTime();
+        for (BorrowBookRequest request : burst) {
+            borrowingService.borrowBook(request.getBookId(), request.getMemberId());
+        }
+        long singleMillis = (System.nanoTime() - start) / 1_000_000;
+        for (BorrowBookRequest request : burst) {
+            borrowingService.returnBook(request.getBookId(), request.getMemberId());
+        }
+
+        start = System.nanoTime();
+        List<BatchItemResult> borrowed = borrowingService.borrowBooks(burst);
+        long batchMillis = (System.nanoTime() - start) / 1_000_000;
+        LOGGER.info("{} borrows as single calls: {} ms, as one batch: {} ms", BURST, singleMillis, batchMillis);
+
+        // Then
+        assertThat(borrowed).allMatch(BatchItemResult::isSuccess);
+        assertThat(borrowingRepository.count()).isEqualTo(BURST);
+        assertThat(bookRepository.findAll()).allMatch(book -> book.getAmount() == BURST - BURST / BOOKS);
+
+        List<BatchItemResult> returned = borrowingService.returnBooks(burst);
+        assertThat(returned).allMatch(BatchItemResult::isSuccess);
+        assertThat(borrowingRepository.count()).isZero();
+        assertThat(bookRepository.findAll()).allMatch(book -> book.getAmount() == BURST);
+    }
+
+    private List<BorrowBookRequest> createBurst() {
+        List<BorrowBookRequest> burst = new ArrayList<>();
+        for (long member = 1; member <= BURST; member++) {
+            BorrowBookRequest request = new BorrowBookRequest();
+            request.setMemberId(member);
+            request.setBookId(member % BOOKS + 1);
+            burst.add(request);
+        }
+        return burst;
+    }
+}
@@ -0,0 +1,93 @@
+package com.kafka.librarynerdysoft.performance;
+
+import com.kafka.librarynerdysoft.entity.Borrowing;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with -Dbenchmark.borrowings=1000000 for the full-size comparison.
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("perf")
+@DisplayName("Title to borrow count report benchmark")
+class BorrowCountReportBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BorrowCountReportBenchmarkTest.class);
+
+    private static final int BOOKS = 1000;
+    private static final int BORROWINGS = Integer.getInteger("benchmark.borrowings", 50_000);
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private LibraryDataSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        seeder = new LibraryDataSeeder(jdbcTemplate, cacheManager);
+        int members = Math.max(1, BORROWINGS / BOOKS);
+        seeder.seedBooks(BOOKS, 10);
+        seeder.seedMembers(members);
+        seeder.seedBorrowings(members, Math.min(BOOKS, BORROWINGS));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        seeder.clear();
+    }
+
+    @Test
+    @DisplayName("Should match the in-memory grouping and report response times")
+    void shouldCompareGroupByWithInMemoryGrouping() {
+        // When
+        Map<String, Long> inMemory = time("findAll + group in Java", () ->
+                transactionTemplate.execute(status -> borrowingRepository.findAll().stream()
+                        .collect(Collectors.groupingBy(
+                                (Borrowing borrowing) -> borrowing.getBook().getTitle(),
+                                Collectors.counting()))));
+        Map<String, Long> aggregated = time("GROUP BY query", () -> borrowingService.getBookTitleToBorrowCount(null));
+        Map<String, Long> top = time("GROUP BY query, top 10", () -> borrowingService.getBookTitleToBorrowCount(10));
+
+        // Then
+        assertThat(aggregated).isEqualTo(inMemory);
+        assertThat(top).hasSize(10);
+    }
+
+    private <T> T time(String label, Supplier<T> call) {
+        call.get(); // warm-up
+        long start = System.nanoTime();
+        T result = call.get();
+        LOGGER.info("{} over {} borrowings: {} ms", label, BORROWINGS, (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+}
@@ -0,0 +1,217 @@
+package com.kafka.librarynerdysoft.performance;
+
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Borrowing;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("perf")
+@DisplayName("BorrowingService concurrency stress tests")
+class BorrowingConcurrencyStressTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BorrowingConcurrencyStressTest.class);
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${library.max.borrowed.books}")
+    private int maxBorrowed;
+
+    @AfterEach
+    void cleanUp() {
+        borrowingRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Should never oversell a hot title under concurrent borrows")
+    void shouldNeverOversellHotTitle() throws InterruptedException {
+        // Given
+        int stock = 50;
+        Book book = bookRepository.save(createBook("Hot Title", stock));
+        List<Member> members = createMembers(THREADS * 8);
+
+        // When
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(members, (member, i) -> {
+            try {
+                borrowingService.borrowBook(book.getId(), member.getId());
+                borrowed.incrementAndGet();
+            } catch (RuntimeException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        // Then
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(reloaded.getAmount()).isZero();
+        assertThat(borrowed.get()).isEqualTo(stock);
+        assertThat(rejected.get()).isEqualTo(members.size() - stock);
+        assertThat(borrowingRepository.count()).isEqualTo(stock);
+    }
+
+    @Test
+    @DisplayName("Should never let one member exceed the loan limit under concurrent borrows")
+    void shouldEnforceLoanLimitUnderConcurrentBorrows() throws InterruptedException {
+        // Given
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < THREADS * 2; i++) {
+            books.add(createBook("Limit Title " + i, 1));
+        }
+        bookRepository.saveAll(books);
+        Member member = createMembers(1).get(0);
+
+        // When
+        AtomicInteger borrowed = new AtomicInteger();
+        runConcurrently(Collections.nCopies(books.size(), member), (m, i) -> {
+            try {
+                borrowingService.borrowBook(books.get(i).getId(), m.getId());
+                borrowed.incrementAndGet();
+            } catch (RuntimeException ignored) {
+                // over the limit
+            }
+        });
+
+        // Then
+        assertThat(borrowed.get()).isEqualTo(maxBorrowed);
+        assertThat(borrowingRepository.countByMember(member)).isEqualTo(maxBorrowed);
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getActiveLoans()).isEqualTo(maxBorrowed);
+    }
+
+    @Test
+    @DisplayName("Should measure borrows/sec for guarded update vs read-check-write")
+    void shouldMeasureBorrowThroughput() throws InterruptedException {
+        // Given
+        int borrowsPerRun = THREADS * 16;
+        Book guardedBook = bookRepository.save(createBook("Guarded Title", borrowsPerRun));
+        Book legacyBook = bookRepository.save(createBook("Legacy Title", borrowsPerRun));
+        List<Member> members = createMembers(borrowsPerRun);
+
+        // When
+        double legacyRate = measure(members, (member, i) -> legacyBorrow(legacyBook.getId(), member.getId()));
+        double guardedRate = measure(members, (member, i) -> borrowingService.borrowBook(guardedBook.getId(), member.getId()));
+
+        // Then
+        Book guarded = bookRepository.findById(guardedBook.getId()).orElseThrow();
+        Book legacy = bookRepository.findById(legacyBook.getId()).orElseThrow();
+        LOGGER.info("read-check-write: {} borrows/sec, stock left {} (expected 0)", String.format("%.0f", legacyRate), legacy.getAmount());
+        LOGGER.info("guarded update:   {} borrows/sec, stock left {}", String.format("%.0f", guardedRate), guarded.getAmount());
+
+        assertThat(guarded.getAmount()).isZero();
+    }
+
+    // The borrow path as it was before the guarded update, kept here as the baseline
+    private void legacyBorrow(Long bookId, Long memberId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Member member = memberRepository.findById(memberId).orElseThrow();
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            if (book.getAmount() <= 0) {
+                throw new RuntimeException("Book is no available for borrowing");
+            }
+            borrowingRepository.countByMember(member);
+            borrowingRepository.findByBookAndMember(book, member);
+
+            Borrowing borrowing = new Borrowing();
+            borrowing.setBook(book);
+            borrowing.setMember(member);
+            book.setAmount(book.getAmount() - 1);
+            bookRepository.save(book);
+            borrowingRepository.save(borrowing);
+        });
+    }
+
+    private double measure(List<Member> members, BiConsumer<Member, Integer> borrow) throws InterruptedException {
+        long start = System.nanoTime();
+        runConcurrently(members, (member, i) -> {
+            try {
+                borrow.accept(member, i);
+            } catch (RuntimeException ignored) {
+                // rejected borrows still count towards the measured work
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        return members.size() / seconds;
+    }
+
+    private void runConcurrently(List<Member> members, BiConsumer<Member, Integer> task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < members.size(); i++) {
+            Member member = members.get(i);
+            int index = i;
+            executor.submit(() -> {
+                start.await();
+                task.accept(member, index);
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+    }
+
+    // Helper methods
+    private Book createBook(String title, int amount) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Stress Author");
+        book.setAmount(amount);
+        return book;
+    }
+
+    private List<Member> createMembers(int count) {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Member member = new Member();
+            member.setName("Member " + i);
+            member.setMemberDate(LocalDateTime.now());
+            members.add(member);
+        }
+        return memberRepository.saveAll(members);
+    }
+}
@@ -0,0 +1,298 @@
+package com.kafka.librarynerdysoft.performance;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Drives a mix of borrow/return/read requests through the HTTP endpoints in stages of growing concurrency,
+// logs throughput and latency per stage and checks the circulation invariants after each one.
+// Tune with -Dsimulation.threads=4,16,64 -Dsimulation.seconds=5 -Dsimulation.mix=40,30,30 (borrow,return,read).
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "server.error.include-message=always")
+@ActiveProfiles("test")
+@Tag("perf")
+@DisplayName("Circulation load simulation")
+class CirculationLoadSimulationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CirculationLoadSimulationTest.class);
+
+    private static final int[] THREADS = parseInts(System.getProperty("simulation.threads", "4,16,64"));
+    private static final int SECONDS = Integer.getInteger("simulation.seconds", 5);
+    private static final int[] MIX = parseInts(System.getProperty("simulation.mix", "40,30,30"));
+
+    // few copies per title, so stock and loan limits are contended
+    private static final int MEMBERS = 200;
+    private static final int BOOKS = 100;
+    private static final int COPIES = 3;
+
+    // expected answers to a borrow; any other failure is a bug. Out-of-stock titles queue a hold (202) instead.
+    private static final Set<String> REJECTIONS = Set.of(
+            "Member is no allowed to borrow any more books",
+            "Book is already borrowed",
+            "Book is already on hold"
+    );
+
+    private enum Operation { BORROW, RETURN, READ }
+
+    private enum Outcome { OK, QUEUED, REJECTED, ERROR }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${library.max.borrowed.books}")
+    private int maxBorrowed;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    // {bookId, memberId} of every loan the clients hold; a return takes one out, so no loan is returned twice
+    private final Queue<long[]> loans = new ConcurrentLinkedQueue<>();
+
+    private LibraryDataSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        seeder = new LibraryDataSeeder(jdbcTemplate, cacheManager);
+        seeder.seedBooks(BOOKS, COPIES);
+        seeder.seedMembers(MEMBERS);
+        seeder.restartSequences();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        seeder.clear();
+        http.close();
+    }
+
+    @Test
+    @DisplayName("Should keep stock and loan limits consistent under concurrent circulation")
+    void shouldKeepInvariantsUnderLoad() throws InterruptedException {
+        for (int threads : THREADS) {
+            // When
+            Stage stage = runStage(threads);
+
+            // Then
+            LOGGER.info("{}", stage);
+            assertThat(stage.errors).as("unexpected responses with %d threads", threads).isEmpty();
+            awaitFulfilment();
+            assertInvariants();
+        }
+    }
+
+    private Stage runStage(int threads) throws InterruptedException {
+        Stage stage = new Stage(threads);
+        long deadline = System.nanoTime() + SECONDS * 1_000_000_000L;
+        try (ExecutorService clients = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        step(stage);
+                    }
+                });
+            }
+        }
+        stage.seconds = SECONDS;
+        return stage;
+    }
+
+    private void step(Stage stage) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = pick(random.nextInt(MIX[0] + MIX[1] + MIX[2]));
+        long[] loan = operation == Operation.RETURN ? loans.poll() : null;
+        if (operation == Operation.RETURN && loan == null) {
+            // nothing on loan yet
+            operation = Operation.READ;
+        }
+        long bookId = loan != null ? loan[0] : random.nextLong(1, BOOKS + 1);
+        long memberId = loan != null ? loan[1] : random.nextLong(1, MEMBERS + 1);
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request(operation, bookId, memberId), HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - start;
+            Outcome outcome = outcome(operation, response);
+            if (outcome == Outcome.OK && operation == Operation.BORROW) {
+                loans.add(new long[]{bookId, memberId});
+            }
+            if (outcome == Outcome.ERROR) {
+                stage.errors.add(operation + " book " + bookId + " member " + memberId + ": "
+                        + response.statusCode() + " " + response.body());
+            }
+            stage.record(operation, outcome, latency);
+        } catch (IOException | InterruptedException e) {
+            stage.errors.add(operation + " book " + bookId + " member " + memberId + ": " + e);
+        }
+    }
+
+    private HttpRequest request(Operation operation, long bookId, long memberId) {
+        String body = "{\"bookId\":" + bookId + ",\"memberId\":" + memberId + "}";
+        return switch (operation) {
+            case BORROW -> HttpRequest.newBuilder(uri("/borrow"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            case RETURN -> HttpRequest.newBuilder(uri("/borrow"))
+                    .header("Content-Type", "application/json")
+                    .method("DELETE", HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            case READ -> HttpRequest.newBuilder(uri("/borrow/books/member/id/" + memberId)).GET().build();
+        };
+    }
+
+    private Outcome outcome(Operation operation, HttpResponse<String> response) throws IOException {
+        if (operation == Operation.BORROW && response.statusCode() == 202) {
+            return Outcome.QUEUED;
+        }
+        if (response.statusCode() / 100 == 2) {
+            return Outcome.OK;
+        }
+        if (operation == Operation.BORROW) {
+            JsonNode message = objectMapper.readTree(response.body()).get("message");
+            if (message != null && REJECTIONS.contains(message.asText())) {
+                return Outcome.REJECTED;
+            }
+        }
+        return Outcome.ERROR;
+    }
+
+    // the fulfiller runs after the returns commit; give it time to hand out the copies left on the shelf
+    private void awaitFulfilment() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline && !waitingWithStock().isEmpty()) {
+            Thread.sleep(100);
+        }
+        assertThat(waitingWithStock()).as("holds still waiting for a title with copies on the shelf").isEmpty();
+    }
+
+    private List<Long> waitingWithStock() {
+        return jdbcTemplate.queryForList("select h.id from book_hold h join book b on b.id = h.book_id " +
+                "where h.status = 'WAITING' and b.amount > 0", Long.class);
+    }
+
+    private void assertInvariants() {
+        assertThat(jdbcTemplate.queryForList("select id from book where amount < 0", Long.class))
+                .as("books with negative stock").isEmpty();
+        assertThat(jdbcTemplate.queryForList(
+                "select b.id from book b where b.amount + (select count(*) from borrowing br where br.book_id = b.id) <> ?",
+                Long.class, COPIES))
+                .as("books whose stock and loans don't add up to their copies").isEmpty();
+        assertThat(jdbcTemplate.queryForList(
+                "select member_id from borrowing group by member_id having count(*) > ?", Long.class, maxBorrowed))
+                .as("members over the loan limit").isEmpty();
+        assertThat(jdbcTemplate.queryForList(
+                "select m.id from member m where m.active_loans <> (select count(*) from borrowing br where br.member_id = m.id) " +
+                        "+ (select count(*) from book_hold h where h.member_id = m.id and h.status = 'WAITING')",
+                Long.class))
+                .as("members whose loan counter drifted from their loans and holds").isEmpty();
+        // the clients never return loans they got through a hold
+        assertThat(jdbcTemplate.queryForObject("select (select count(*) from borrowing) " +
+                "- (select count(*) from book_hold where status = 'FULFILLED')", Long.class))
+                .as("loans in the database vs loans the clients were granted").isEqualTo(loans.size());
+    }
+
+    private static Operation pick(int roll) {
+        if (roll < MIX[0]) {
+            return Operation.BORROW;
+        }
+        return roll < MIX[0] + MIX[1] ? Operation.RETURN : Operation.READ;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static int[] parseInts(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static final class Stage {
+        private final int threads;
+        private double seconds;
+        private final Map<Operation, Map<Outcome, AtomicLong>> counts = new EnumMap<>(Operation.class);
+        private final Map<Operation, List<Long>> latencies = new EnumMap<>(Operation.class);
+        private final Queue<String> errors = new ConcurrentLinkedQueue<>();
+
+        Stage(int threads) {
+            this.threads = threads;
+            for (Operation operation : Operation.values()) {
+                Map<Outcome, AtomicLong> outcomes = new EnumMap<>(Outcome.class);
+                for (Outcome outcome : Outcome.values()) {
+                    outcomes.put(outcome, new AtomicLong());
+                }
+                counts.put(operation, outcomes);
+                latencies.put(operation, Collections.synchronizedList(new ArrayList<>()));
+            }
+        }
+
+        void record(Operation operation, Outcome outcome, long latencyNanos) {
+            counts.get(operation).get(outcome).incrementAndGet();
+            latencies.get(operation).add(latencyNanos);
+        }
+
+        @Override
+        public String toString() {
+            long total = latencies.values().stream().mapToLong(List::size).sum();
+            StringBuilder report = new StringBuilder(String.format("%d threads: %.0f req/s, %.0f checkouts/s",
+                    threads, total / seconds, counts.get(Operation.BORROW).get(Outcome.OK).get() / seconds));
+            for (Operation operation : Operation.values()) {
+                List<Long> sorted = new ArrayList<>(latencies.get(operation));
+                Collections.sort(sorted);
+                Map<Outcome, AtomicLong> outcomes = counts.get(operation);
+                report.append(String.format("; %s %d ok / %d queued / %d rejected, p50 %.1f ms, p99 %.1f ms",
+                        operation, outcomes.get(Outcome.OK).get(), outcomes.get(Outcome.QUEUED).get(),
+                        outcomes.get(Outcome.REJECTED).get(),
+                        percentileMillis(sorted, 50), percentileMillis(sorted, 99)));
+            }
+            return report.toString();
+        }
+
+        private static double percentileMillis(List<Long> sorted, int percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = Math.min(sorted.size() - 1, (int) Math.ceil(sorted.size() * percentile / 100.0) - 1);
+            return sorted.get(Math.max(0, index)) / 1_000_000.0;
+        }
+    }
+}
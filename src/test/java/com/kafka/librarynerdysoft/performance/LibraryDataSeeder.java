@@ -0,0 +1,89 @@
+package com.kafka.librarynerdysoft.performance;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Bulk-loads benchmark data with plain JDBC batches; going through JPA would dominate the run time.
+class LibraryDataSeeder {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    LibraryDataSeeder(JdbcTemplate jdbcTemplate, CacheManager cacheManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+    }
+
+    void seedBooks(int count, int amount) {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            rows.add(new Object[]{id, "Title " + id, "Author " + id, amount});
+        }
+        insert("insert into book (id, title, author, amount) values (?, ?, ?, ?)", rows);
+    }
+
+    void seedMembers(int count) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            rows.add(new Object[]{id, "Member " + id, now});
+        }
+        insert("insert into member (id, name, member_date) values (?, ?, ?)", rows);
+    }
+
+    // every member borrows books 1..booksPerMember, so (member, book) pairs stay unique
+    void seedBorrowings(int members, int booksPerMember) {
+        List<Object[]> rows = new ArrayList<>();
+        long id = 1;
+        for (long member = 1; member <= members; member++) {
+            for (long book = 1; book <= booksPerMember; book++) {
+                rows.add(new Object[]{id++, member, book});
+                if (rows.size() == BATCH_SIZE) {
+                    insert("insert into borrowing (id, member_id, book_id) values (?, ?, ?)", rows);
+                    rows.clear();
+                }
+            }
+        }
+        insert("insert into borrowing (id, member_id, book_id) values (?, ?, ?)", rows);
+        jdbcTemplate.update("update member set active_loans = ? where id <= ?", booksPerMember, members);
+    }
+
+    // Seeded ids don't come from the sequences; move them past the seeded rows so entities saved afterwards
+    // don't collide. Hibernate's pooled optimizer hands out the 50 ids just below each sequence value.
+    void restartSequences() {
+        for (String table : List.of("book", "member", "book_copy", "borrowing")) {
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            jdbcTemplate.execute("alter sequence " + table + "_seq restart with " + (maxId + 51));
+        }
+    }
+
+    void clear() {
+        jdbcTemplate.update("delete from circulation_outbox");
+        jdbcTemplate.update("delete from book_hold");
+        jdbcTemplate.update("delete from borrowing");
+        jdbcTemplate.update("delete from book_copy");
+        jdbcTemplate.update("delete from book");
+        jdbcTemplate.update("delete from member");
+        // rows were removed behind the repositories' back
+        cacheManager.getCacheNames().forEach(name -> {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    private void insert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
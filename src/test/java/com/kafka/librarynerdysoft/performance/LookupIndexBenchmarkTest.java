@@ -0,0 +1,131 @@
+package com.kafka.librarynerdysoft.performance;
+
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Run with -Dbenchmark.rows=1000000 for the full-size comparison.
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("perf")
+@DisplayName("Lookup index benchmark")
+class LookupIndexBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LookupIndexBenchmarkTest.class);
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int BOOKS_PER_MEMBER = 10;
+    private static final int LOOKUPS = 200;
+
+    // index name -> definition, as created by V2__lookup_indexes.sql
+    private static final Map<String, String> INDEXES = new LinkedHashMap<>();
+
+    static {
+        INDEXES.put("borrowing_member_book_uk", "create unique index borrowing_member_book_uk on borrowing (member_id, book_id)");
+        INDEXES.put("borrowing_book_idx", "create index borrowing_book_idx on borrowing (book_id)");
+        INDEXES.put("book_title_author_uk", "create unique index book_title_author_uk on book (title, author)");
+        INDEXES.put("member_name_idx", "create index member_name_idx on member (name)");
+    }
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private LibraryDataSeeder seeder;
+
+    @BeforeEach
+    void setUp() {
+        seeder = new LibraryDataSeeder(jdbcTemplate, cacheManager);
+        seeder.seedBooks(ROWS, 1);
+        seeder.seedMembers(ROWS / BOOKS_PER_MEMBER);
+        seeder.seedBorrowings(ROWS / BOOKS_PER_MEMBER, BOOKS_PER_MEMBER);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        // put back anything a failed run left dropped
+        INDEXES.forEach((name, ddl) -> {
+            jdbcTemplate.execute("drop index if exists " + name);
+            jdbcTemplate.execute(ddl);
+        });
+        seeder.clear();
+    }
+
+    @Test
+    @DisplayName("Should report lookup latency with and without the migration indexes")
+    void shouldCompareLookupsWithAndWithoutIndexes() {
+        // Given
+        INDEXES.keySet().forEach(name -> jdbcTemplate.execute("drop index " + name));
+
+        // When
+        Map<String, Long> withoutIndexes = measureLookups();
+        INDEXES.values().forEach(jdbcTemplate::execute);
+        Map<String, Long> withIndexes = measureLookups();
+
+        // Then
+        withoutIndexes.forEach((lookup, micros) -> LOGGER.info("{} over {} rows: {} us without index, {} us with index",
+                lookup, ROWS, micros, withIndexes.get(lookup)));
+        assertThat(withIndexes).containsOnlyKeys(withoutIndexes.keySet());
+    }
+
+    // average microseconds per call for each lookup, every call checked for the expected answer
+    private Map<String, Long> measureLookups() {
+        int members = ROWS / BOOKS_PER_MEMBER;
+        Map<String, Long> results = new LinkedHashMap<>();
+        results.put("findByTitleAndAuthor", time(ROWS, id ->
+                bookRepository.findByTitleAndAuthor("Title " + id, "Author " + id).isPresent()));
+        results.put("findByName", time(members, id ->
+                memberRepository.findByName("Member " + id).isPresent()));
+        results.put("existsByBookIdAndMemberId", time(members, id ->
+                borrowingRepository.existsByBookIdAndMemberId(id % BOOKS_PER_MEMBER + 1, id)));
+        results.put("countByBook", time(BOOKS_PER_MEMBER, id ->
+                borrowingRepository.countByBook(bookWithId(id)) == members));
+        return results;
+    }
+
+    private long time(int maxId, LongPredicate lookup) {
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(lookup.test(1 + random.nextInt(maxId))).isTrue();
+        }
+        return (System.nanoTime() - start) / 1_000 / LOOKUPS;
+    }
+
+    private Book bookWithId(long id) {
+        Book book = new Book();
+        book.setId(id);
+        return book;
+    }
+}
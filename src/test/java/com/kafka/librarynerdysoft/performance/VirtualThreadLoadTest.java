@@ -0,0 +1,175 @@
+package com.kafka.librarynerdysoft.performance;
+
+import com.kafka.librarynerdysoft.LibraryNerdySoftApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Starts the application once on platform threads and once on virtual threads and drives each with CLIENTS
+// concurrent HTTP clients. Every JDBC query waits QUERY_LATENCY_MS first, so requests spend their time
+// blocked the way they do against a remote database. Run with -Dbenchmark.clients=N to change the load.
+@Tag("perf")
+@DisplayName("Platform vs virtual thread load comparison")
+class VirtualThreadLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 2000);
+    private static final int REQUESTS_PER_CLIENT = 3;
+    private static final long QUERY_LATENCY_MS = 20;
+    // more connections than Tomcat's 200 workers, so on platform threads the workers are the limit
+    private static final int POOL_SIZE = 400;
+    private static final int MEMBERS = 500;
+
+    @Test
+    @DisplayName("Should serve the same load on both thread models and report throughput")
+    void shouldCompareThreadModels() throws InterruptedException {
+        // When
+        LoadResult platform = runLoad(false);
+        LoadResult virtual = runLoad(true);
+
+        // Then
+        LOGGER.info("{} clients, platform threads: {}", CLIENTS, platform);
+        LOGGER.info("{} clients, virtual threads:  {}", CLIENTS, virtual);
+        assertThat(platform.failures()).isZero();
+        assertThat(virtual.failures()).isZero();
+    }
+
+    private LoadResult runLoad(boolean virtualThreads) throws InterruptedException {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryNerdySoftApplication.class)
+                .profiles("test")
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new QueryLatency()))
+                // passed as arguments so they win over application-test.properties
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";MODE=PostgreSQL",
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE)) {
+            LibraryDataSeeder seeder = new LibraryDataSeeder(context.getBean(JdbcTemplate.class), context.getBean(CacheManager.class));
+            seeder.seedBooks(10, MEMBERS);
+            seeder.seedMembers(MEMBERS);
+            seeder.seedBorrowings(MEMBERS, 3);
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            return drive(port);
+        }
+    }
+
+    // each client sends its requests one after another; all clients start together
+    private LoadResult drive(int port) throws InterruptedException {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger failures = new AtomicInteger();
+        long start;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build()) {
+            start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                URI uri = URI.create("http://localhost:" + port + "/borrow/books/member/id/" + (c % MEMBERS + 1));
+                clients.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(
+                                    HttpRequest.newBuilder(uri).timeout(Duration.ofMinutes(1)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - sent);
+                    }
+                });
+            }
+            clients.shutdown();
+            assertThat(clients.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new LoadResult(sorted.size() / seconds, percentileMillis(sorted, 50), percentileMillis(sorted, 99), failures.get());
+    }
+
+    private static long percentileMillis(List<Long> sorted, int percentile) {
+        int index = Math.min(sorted.size() - 1, (int) Math.ceil(sorted.size() * percentile / 100.0) - 1);
+        return sorted.get(Math.max(0, index)) / 1_000_000;
+    }
+
+    private record LoadResult(double requestsPerSecond, long p50Millis, long p99Millis, int failures) {
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p50 %d ms, p99 %d ms, %d failures", requestsPerSecond, p50Millis, p99Millis, failures);
+        }
+    }
+
+    // Wraps the DataSource so every query sleeps before running, like a round trip to a remote database
+    private static class QueryLatency implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection connection ? proxy(Connection.class, connection, this::wrapStatements) : result;
+            });
+        }
+
+        private Object wrapStatements(Object target, Method method, Object[] args) throws Exception {
+            Object result = method.invoke(target, args);
+            if (!(result instanceof PreparedStatement statement)) {
+                return result;
+            }
+            return proxy(PreparedStatement.class, statement, (st, m, a) -> {
+                if (m.getName().equals("executeQuery")) {
+                    Thread.sleep(QUERY_LATENCY_MS);
+                }
+                return m.invoke(st, a);
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, T target, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                try {
+                    return handler.invoke(target, method, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Object target, Method method, Object[] args) throws Exception;
+    }
+}
@@ -0,0 +1,170 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
+import com.kafka.librarynerdysoft.dto.ImportResult;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.service.BookImportService;
+import com.kafka.librarynerdysoft.service.BookService;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import com.kafka.librarynerdysoft.service.MemberService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Bulk statement Tests")
+class BulkStatementTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void cleanUp() {
+        borrowingRepository.deleteAllInBatch();
+        bookCopyRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should return all books of a member and restore every title's stock")
+    void shouldReturnAllBooksOfMember() {
+        // Given
+        Book first = bookRepository.save(createBook("First Title", 2));
+        Book second = bookRepository.save(createBook("Second Title", 1));
+        Member member = memberRepository.save(createMember("Reader"));
+        Member other = memberRepository.save(createMember("Other Reader"));
+        borrowingService.borrowBook(first.getId(), member.getId());
+        borrowingService.borrowBook(second.getId(), member.getId());
+        borrowingService.borrowBook(first.getId(), other.getId());
+
+        // When
+        int returned = borrowingService.returnAllBooks(member.getId());
+
+        // Then
+        assertThat(returned).isEqualTo(2);
+        assertThat(bookRepository.findById(first.getId()).orElseThrow().getAmount()).isEqualTo(1);
+        assertThat(bookRepository.findById(second.getId()).orElseThrow().getAmount()).isEqualTo(1);
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getActiveLoans()).isZero();
+        assertThat(borrowingRepository.countByMember(other)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should refuse to delete a member or book with active loans")
+    void shouldGuardDeletes() {
+        // Given
+        Book book = bookRepository.save(createBook("Borrowed Title", 1));
+        Member member = memberRepository.save(createMember("Reader"));
+        borrowingService.borrowBook(book.getId(), member.getId());
+
+        // When & Then
+        assertThatThrownBy(() -> memberService.deleteMember(member.getId()))
+                .hasMessage("Member with id " + member.getId() + " is borrowing a book");
+        assertThatThrownBy(() -> bookService.deleteBook(book.getId()))
+                .hasMessage("Member with id " + book.getId() + " is borrowing a book");
+
+        borrowingService.returnBook(book.getId(), member.getId());
+        memberService.deleteMember(member.getId());
+        bookService.deleteBook(book.getId());
+        assertThat(memberRepository.existsById(member.getId())).isFalse();
+        assertThat(bookRepository.existsById(book.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should add a copy to an existing title instead of creating it twice")
+    void shouldUpsertBookCopies() {
+        // Given
+        BookCreatedRequest request = new BookCreatedRequest();
+        request.setTitle("Upserted Title");
+        request.setAuthor("Bulk Author");
+
+        // When
+        Book first = bookService.createBook(request);
+        Book second = bookService.createBook(request);
+
+        // Then
+        assertThat(second.getId()).isEqualTo(first.getId());
+        assertThat(bookRepository.findById(first.getId()).orElseThrow().getAmount()).isEqualTo(2);
+        assertThat(bookRepository.findByTitleAndAuthor("Upserted Title", "Bulk Author")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should add imported copies to existing titles and insert the new ones")
+    void shouldUpsertImportedTitles() throws IOException {
+        // Given
+        BookCreatedRequest request = new BookCreatedRequest();
+        request.setTitle("Existing Title");
+        request.setAuthor("Bulk Author");
+        Book existing = bookService.createBook(request);
+        String csv = """
+                Existing Title,Bulk Author
+                Existing Title,Bulk Author
+                New Title,Bulk Author
+                """;
+
+        // When
+        ImportResult result = bookImportService.importBooks(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false);
+
+        // Then
+        assertThat(result.getTitlesCreated()).isEqualTo(1);
+        assertThat(result.getTitlesUpdated()).isEqualTo(1);
+        assertThat(bookRepository.findById(existing.getId()).orElseThrow().getAmount()).isEqualTo(3);
+        assertThat(bookRepository.findByTitleAndAuthor("New Title", "Bulk Author").orElseThrow().getAmount()).isEqualTo(1);
+        assertThat(bookCopyRepository.count()).isEqualTo(4);
+    }
+
+    // Helper methods
+    private Book createBook(String title, int amount) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Bulk Author");
+        book.setAmount(amount);
+        return book;
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setMemberDate(LocalDateTime.now());
+        return member;
+    }
+}
@@ -0,0 +1,114 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.service.BookService;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "library.inventory.copy-level=true")
+@ActiveProfiles("test")
+@DisplayName("Copy-level inventory Tests")
+class CopyLevelInventoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private BookCopyRepository bookCopyRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAllInBatch();
+        borrowingRepository.deleteAllInBatch();
+        bookCopyRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should refuse to delete a book whose copy is on loan and keep its copies")
+    void shouldRefuseToDeleteBorrowedBook() {
+        // Given
+        BookCreatedRequest request = new BookCreatedRequest();
+        request.setTitle("Copy Title");
+        request.setAuthor("Copy Author");
+        bookService.createBook(request);
+        Book book = bookService.createBook(request);
+        Member member = memberRepository.save(createMember());
+        borrowingService.borrowBook(book.getId(), member.getId());
+
+        // When & Then
+        assertThatThrownBy(() -> bookService.deleteBook(book.getId()))
+                .hasMessage("Member with id " + book.getId() + " is borrowing a book");
+        assertThat(bookCopyRepository.count()).isEqualTo(2);
+
+        borrowingService.returnBook(book.getId(), member.getId());
+        bookService.deleteBook(book.getId());
+        assertThat(bookRepository.existsById(book.getId())).isFalse();
+        assertThat(bookCopyRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count free copies in every book response")
+    void shouldReportFreeCopies() {
+        // Given
+        BookCreatedRequest request = new BookCreatedRequest();
+        request.setTitle("Counted Title");
+        request.setAuthor("Copy Author");
+        bookService.createBook(request);
+        Book book = bookService.createBook(request);
+        Member member = memberRepository.save(createMember());
+
+        // When
+        borrowingService.borrowBook(book.getId(), member.getId());
+
+        // Then
+        assertThat(bookService.toResponse(bookService.getBookById(book.getId()).orElseThrow()).getAvailableCopies())
+                .isEqualTo(1);
+        assertThat(bookService.getBooks(null, 10).getItems()).extracting(BookResponse::getAvailableCopies)
+                .containsExactly(1);
+        assertThat(borrowingService.getBooksBorrowedByMemberId(member.getId()))
+                .extracting(BookResponse::getAvailableCopies).containsExactly(1);
+    }
+
+    // Helper methods
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("Copy Reader");
+        member.setMemberDate(LocalDateTime.now());
+        return member;
+    }
+}
@@ -0,0 +1,78 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.service.DatabaseIdempotencyStore;
+import com.kafka.librarynerdysoft.service.IdempotencyStore.StoredResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Database idempotency store Tests")
+class DatabaseIdempotencyStoreTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from idempotency_key");
+    }
+
+    @Test
+    @DisplayName("Should let one instance claim a key and share the finished response with the others")
+    void shouldShareResponsesAcrossInstances() {
+        // Given
+        DatabaseIdempotencyStore first = store(Duration.ofMinutes(1));
+        DatabaseIdempotencyStore second = store(Duration.ofMinutes(1));
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        Optional<StoredResponse> claimed = first.claim("POST /borrow k1", "abc");
+        Optional<StoredResponse> whileRunning = second.claim("POST /borrow k1", "abc");
+        first.complete("POST /borrow k1", new StoredResponse("abc", 200, "application/json", null, body));
+        Optional<StoredResponse> afterwards = second.claim("POST /borrow k1", "abc");
+
+        // Then
+        assertThat(claimed).isEmpty();
+        assertThat(whileRunning).hasValueSatisfying(response -> assertThat(response.isComplete()).isFalse());
+        assertThat(afterwards).hasValueSatisfying(response -> {
+            assertThat(response.status()).isEqualTo(200);
+            assertThat(response.contentType()).isEqualTo("application/json");
+            assertThat(response.body()).isEqualTo(body);
+        });
+    }
+
+    @Test
+    @DisplayName("Should free a key when its request fails or its claim expires")
+    void shouldFreeReleasedAndExpiredKeys() {
+        // Given
+        DatabaseIdempotencyStore store = store(Duration.ofMinutes(1));
+        DatabaseIdempotencyStore expiring = store(Duration.ofMillis(-1));
+        store.claim("DELETE /borrow k2", "abc");
+        expiring.claim("DELETE /borrow k3", "abc");
+
+        // When
+        store.release("DELETE /borrow k2");
+
+        // Then
+        assertThat(store.claim("DELETE /borrow k2", "abc")).isEmpty();
+        assertThat(store.claim("DELETE /borrow k3", "abc")).isEmpty();
+        assertThat(expiring.claim("DELETE /borrow k4", "abc")).isEmpty();
+        assertThat(store.purgeExpired()).isEqualTo(1);
+    }
+
+    private DatabaseIdempotencyStore store(Duration inFlightTtl) {
+        return new DatabaseIdempotencyStore(jdbcTemplate, 100, Duration.ofHours(1), inFlightTtl);
+    }
+}
@@ -0,0 +1,49 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.projection.UpsertedTitle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The embedded H2 behind the test profile has no ON CONFLICT ... DO UPDATE or RETURNING. Registered under the
+// fragment's bean name, so Spring Data wires it into BookRepository instead of BookStockRepositoryImpl.
+@Component("bookStockRepositoryImpl")
+@Profile("test")
+class H2BookStockRepository extends BookStockRepositoryImpl {
+
+    H2BookStockRepository(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate);
+    }
+
+    @Override
+    public Long addCopy(String title, String author) {
+        jdbcTemplate.update("""
+                merge into book b using (values (cast(? as varchar(255)), cast(? as varchar(255)))) v (title, author)
+                on b.title = v.title and b.author = v.author
+                when matched then update set amount = b.amount + 1, version = b.version + 1
+                when not matched then insert (id, title, author, amount) values (nextval('book_seq'), v.title, v.author, 1)""",
+                title, author);
+        return jdbcTemplate.queryForObject("select id from book where title = ? and author = ?", Long.class, title, author);
+    }
+
+    @Override
+    public List<UpsertedTitle> addCopies(List<String> titles, List<String> authors, List<Integer> amounts) {
+        List<UpsertedTitle> upserted = new ArrayList<>();
+        for (int i = 0; i < titles.size(); i++) {
+            String title = titles.get(i);
+            String author = authors.get(i);
+            int updated = jdbcTemplate.update("update book set amount = amount + ?, version = version + 1 " +
+                    "where title = ? and author = ?", amounts.get(i), title, author);
+            if (updated == 0) {
+                jdbcTemplate.update("insert into book (id, title, author, amount) values (nextval('book_seq'), ?, ?, ?)",
+                        title, author, amounts.get(i));
+            }
+            Long id = jdbcTemplate.queryForObject("select id from book where title = ? and author = ?", Long.class, title, author);
+            upserted.add(new UpsertedTitle(id, title, author, updated == 0));
+        }
+        return upserted;
+    }
+}
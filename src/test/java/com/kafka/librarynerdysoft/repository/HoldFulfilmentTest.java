@@ -0,0 +1,131 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.dto.CheckoutResult;
+import com.kafka.librarynerdysoft.dto.HoldResponse;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.HoldStatus;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import com.kafka.librarynerdysoft.service.HoldService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Hold fulfilment Tests")
+class HoldFulfilmentTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @AfterEach
+    void cleanUp() {
+        holdRepository.deleteAllInBatch();
+        borrowingRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should queue borrowers of an out-of-stock title and lend returned copies in order")
+    void shouldFulfilHoldsInOrderAfterReturn() throws InterruptedException {
+        // Given
+        Book book = bookRepository.save(createBook("Popular Title", 1));
+        Member holder = memberRepository.save(createMember("Holder"));
+        Member first = memberRepository.save(createMember("First In Line"));
+        Member second = memberRepository.save(createMember("Second In Line"));
+        borrowingService.borrowOrHold(book.getId(), holder.getId());
+
+        // When
+        CheckoutResult firstResult = borrowingService.borrowOrHold(book.getId(), first.getId());
+        CheckoutResult secondResult = borrowingService.borrowOrHold(book.getId(), second.getId());
+        borrowingService.returnBook(book.getId(), holder.getId());
+        HoldResponse firstHold = awaitClosed(firstResult.getHold().getId());
+
+        // Then
+        assertThat(firstResult.getHold().getPosition()).isZero();
+        assertThat(secondResult.getHold().getPosition()).isEqualTo(1L);
+        assertThat(firstHold.getStatus()).isEqualTo(HoldStatus.FULFILLED);
+        assertThat(borrowingRepository.existsByBookIdAndMemberId(book.getId(), first.getId())).isTrue();
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAmount()).isZero();
+        assertThat(memberRepository.findById(first.getId()).orElseThrow().getActiveLoans()).isEqualTo(1);
+        HoldResponse secondHold = holdService.getHold(secondResult.getHold().getId());
+        assertThat(secondHold.getStatus()).isEqualTo(HoldStatus.WAITING);
+        assertThat(secondHold.getPosition()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep a hold's loan slot until it is cancelled")
+    void shouldReleaseSlotOnCancel() {
+        // Given
+        Book book = bookRepository.save(createBook("Out Of Stock Title", 0));
+        Member member = memberRepository.save(createMember("Waiting Reader"));
+        CheckoutResult result = borrowingService.borrowOrHold(book.getId(), member.getId());
+
+        // When
+        borrowingService.returnAllBooks(member.getId());
+        int slotsWhileWaiting = memberRepository.findById(member.getId()).orElseThrow().getActiveLoans();
+        HoldResponse cancelled = holdService.cancelHold(result.getHold().getId());
+
+        // Then
+        assertThat(result.isQueued()).isTrue();
+        assertThat(slotsWhileWaiting).isEqualTo(1);
+        assertThat(cancelled.getStatus()).isEqualTo(HoldStatus.CANCELLED);
+        assertThat(memberRepository.findById(member.getId()).orElseThrow().getActiveLoans()).isZero();
+    }
+
+    // fulfilment runs on the scheduler thread once the return commits
+    private HoldResponse awaitClosed(Long holdId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        HoldResponse hold = holdService.getHold(holdId);
+        while (hold.getStatus() == HoldStatus.WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            hold = holdService.getHold(holdId);
+        }
+        return hold;
+    }
+
+    // Helper methods
+    private Book createBook(String title, int amount) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Hold Author");
+        book.setAmount(amount);
+        return book;
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setMemberDate(LocalDateTime.now());
+        return member;
+    }
+}
@@ -0,0 +1,110 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Starts the application on a database shaped like the ones ddl-auto=update built before the migrations:
+// IDENTITY ids, no copies, no loan counters. Flyway baselines it at V1 and has to bring it up to date.
+@SpringBootTest(properties = "spring.datasource.url=" + LegacySchemaUpgradeTest.URL)
+@ActiveProfiles("test")
+@DisplayName("Legacy schema upgrade Tests")
+class LegacySchemaUpgradeTest {
+
+    static final String URL = "jdbc:h2:mem:legacy;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Flyway flyway;
+
+    // runs before the context starts, so Flyway finds the legacy tables
+    @BeforeAll
+    static void createLegacySchema() {
+        JdbcTemplate legacy = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        legacy.execute("create table book (id bigint generated by default as identity, title varchar(255), " +
+                "author varchar(255), amount integer not null, primary key (id))");
+        legacy.execute("create table member (id bigint generated by default as identity, name varchar(255), " +
+                "member_date timestamp(6), primary key (id))");
+        legacy.execute("create table borrowing (id bigint generated by default as identity, member_id bigint not null, " +
+                "book_id bigint not null, primary key (id), foreign key (member_id) references member, " +
+                "foreign key (book_id) references book)");
+        for (int i = 1; i <= 60; i++) {
+            legacy.update("insert into book (title, author, amount) values (?, 'Legacy Author', 2)", "Legacy Title " + i);
+            legacy.update("insert into member (name, member_date) values (?, current_timestamp)", "Legacy Reader " + i);
+        }
+        legacy.update("insert into borrowing (member_id, book_id) values (1, 1), (1, 2), (2, 1)");
+        // the same title twice (id 61), borrowed under both ids by member 3 and under the new one by member 4
+        legacy.update("insert into book (title, author, amount) values ('Legacy Title 1', 'Legacy Author', 3)");
+        legacy.update("insert into borrowing (member_id, book_id) values (3, 61), (3, 1), (4, 61)");
+    }
+
+    @Test
+    @DisplayName("Should migrate a baselined legacy database and hand out ids past the existing rows")
+    void shouldUpgradeLegacySchema() {
+        // When
+        Book book = bookRepository.save(createBook());
+        Member member = memberRepository.save(createMember());
+        borrowingService.borrowBook(book.getId(), member.getId());
+
+        // Then
+        assertThat(book.getId()).isGreaterThan(60);
+        assertThat(member.getId()).isGreaterThan(60);
+        assertThat(jdbcTemplate.queryForObject("select max(id) from borrowing", Long.class)).isGreaterThan(3);
+        assertThat(jdbcTemplate.queryForObject("select active_loans from member where id = 1", Integer.class)).isEqualTo(2);
+        assertThat(Arrays.stream(flyway.info().applied()).map(migration -> migration.getVersion().getVersion()))
+                .startsWith("1", "1.1", "1.2", "1.3", "2");
+    }
+
+    @Test
+    @DisplayName("Should merge duplicate titles and loans before the unique indexes are created")
+    void shouldMergeLegacyDuplicates() {
+        // Then
+        assertThat(bookRepository.existsById(61L)).isFalse();
+        // 2 + 3 on the shelves, plus member 3's second loan of the title returned
+        assertThat(bookRepository.findById(1L)).get().extracting(Book::getAmount).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForList("select member_id from borrowing where book_id = 1 order by member_id",
+                Long.class)).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(jdbcTemplate.queryForObject("select active_loans from member where id = 3", Integer.class)).isEqualTo(1);
+    }
+
+    // Helper methods
+    private Book createBook() {
+        Book book = new Book();
+        book.setTitle("New Title");
+        book.setAuthor("New Author");
+        book.setAmount(1);
+        return book;
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("New Reader");
+        member.setMemberDate(LocalDateTime.now());
+        return member;
+    }
+}
@@ -0,0 +1,146 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.config.RetryConfig;
+import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.service.BookSearchIndex;
+import com.kafka.librarynerdysoft.service.BookService;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Optimistic locking Tests")
+class OptimisticLockingTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoSpyBean
+    private BookSearchIndex bookSearchIndex;
+
+    @AfterEach
+    void cleanUp() {
+        borrowingRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should reject saving a book read before a borrow instead of restoring its stock")
+    void shouldRejectStaleBookSave() {
+        // Given
+        Book book = bookRepository.save(createBook("Versioned Title", 2));
+        Member member = memberRepository.save(createMember());
+        Book stale = bookRepository.findById(book.getId()).orElseThrow();
+        borrowingService.borrowBook(book.getId(), member.getId());
+
+        // When
+        stale.setTitle("Renamed Title");
+
+        // Then
+        assertThatThrownBy(() -> bookRepository.save(stale)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        Book current = bookRepository.findById(book.getId()).orElseThrow();
+        assertThat(current.getAmount()).isEqualTo(1);
+        assertThat(current.getTitle()).isEqualTo("Versioned Title");
+    }
+
+    @Test
+    @DisplayName("Should retry an update that raced with a stock change and keep both changes")
+    void shouldRetryConflictingUpdate() {
+        // Given
+        Long id = bookRepository.save(createBook("Contended Title", 2)).getId();
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicBoolean raced = new AtomicBoolean();
+        // a return commits between the update's read and its commit, once
+        doAnswer(invocation -> {
+            if (raced.compareAndSet(false, true)) {
+                concurrent.executeWithoutResult(status -> bookRepository.incrementAmount(id));
+            }
+            return invocation.callRealMethod();
+        }).when(bookSearchIndex).put(any(Book.class));
+        double recoveredBefore = retries("recovered");
+
+        BookCreatedRequest request = new BookCreatedRequest();
+        request.setTitle("Renamed Title");
+        request.setAuthor("Versioned Author");
+
+        // When
+        bookService.updateBook(id, request);
+
+        // Then
+        Book current = bookRepository.findById(id).orElseThrow();
+        assertThat(current.getTitle()).isEqualTo("Renamed Title");
+        assertThat(current.getAmount()).isEqualTo(3);
+        assertThat(retries("recovered") - recoveredBefore).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select version from book where id = ?", Long.class, id)).isEqualTo(2);
+    }
+
+    // Helper methods
+    private double retries(String outcome) {
+        return meterRegistry.counter(RetryConfig.RETRIES, "operation", "BookService.updateBook", "outcome", outcome).count();
+    }
+
+    private Book createBook(String title, int amount) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Versioned Author");
+        book.setAmount(amount);
+        return book;
+    }
+
+    private Member createMember() {
+        Member member = new Member();
+        member.setName("Versioned Reader");
+        member.setMemberDate(LocalDateTime.now());
+        return member;
+    }
+}
@@ -0,0 +1,153 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.kafka.librarynerdysoft.dto.CirculationEvent;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.CirculationEventType;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import com.kafka.librarynerdysoft.service.MappedEventLog;
+import com.kafka.librarynerdysoft.service.OutboxPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Outbox publishing Tests")
+class OutboxPublisherTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private MappedEventLog eventLog;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long after;
+
+    @BeforeEach
+    void setUp() {
+        // events of earlier tests in this context
+        outboxPublisher.publishPending();
+        after = eventLog.lastSequence();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAllInBatch();
+        borrowingRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("Should publish committed borrows and returns to the log in order and empty the outbox")
+    void shouldPublishCirculationEvents() {
+        // Given
+        Book book = bookRepository.save(createBook("Published Title", 2));
+        Member member = memberRepository.save(createMember("Published Reader"));
+        borrowingService.borrowBook(book.getId(), member.getId());
+        borrowingService.returnBook(book.getId(), member.getId());
+        borrowingService.borrowBook(book.getId(), member.getId());
+        borrowingService.returnAllBooks(member.getId());
+
+        // When
+        outboxPublisher.publishPending();
+
+        // Then
+        List<CirculationEvent> events = eventLog.read(after, 100);
+        assertThat(events).extracting(CirculationEvent::getType).containsExactly(
+                CirculationEventType.BORROWED, CirculationEventType.RETURNED,
+                CirculationEventType.BORROWED, CirculationEventType.RETURNED);
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getBookId()).isEqualTo(book.getId());
+            assertThat(event.getMemberId()).isEqualTo(member.getId());
+        });
+        assertThat(events).extracting(CirculationEvent::getSequence).isSorted().doesNotHaveDuplicates();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not record an event for a borrow that rolled back")
+    void shouldSkipRolledBackBorrows() {
+        // Given
+        Book book = bookRepository.save(createBook("Empty Title", 0));
+        Member member = memberRepository.save(createMember("Unlucky Reader"));
+
+        // When
+        assertThatThrownBy(() -> borrowingService.borrowBook(book.getId(), member.getId()))
+                .hasMessage("Book is no available for borrowing");
+        outboxPublisher.publishPending();
+
+        // Then
+        assertThat(eventLog.read(after, 100)).isEmpty();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should publish in the order the database recorded events, not by id")
+    void shouldPublishInRecordedOrder() {
+        // Given: another instance's id block is lower but its event came later
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("insert into circulation_outbox (id, type, book_id, member_id, occurred_at, recorded_at) "
+                + "values (900001, 'RETURNED', 1, 1, ?, ?)", now, now);
+        jdbcTemplate.update("insert into circulation_outbox (id, type, book_id, member_id, occurred_at, recorded_at) "
+                + "values (100001, 'BORROWED', 1, 2, ?, ?)", now, now.plusNanos(1_000));
+
+        // When
+        outboxPublisher.publishPending();
+
+        // Then
+        assertThat(eventLog.read(after, 100)).extracting(CirculationEvent::getEventId)
+                .containsExactly(900001L, 100001L);
+    }
+
+    // Helper methods
+    private Book createBook(String title, int amount) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Outbox Author");
+        book.setAmount(amount);
+        return book;
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setMemberDate(LocalDateTime.now());
+        return member;
+    }
+}
@@ -0,0 +1,138 @@
+package com.kafka.librarynerdysoft.repository;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.kafka.librarynerdysoft.config.CacheConfig;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.service.BorrowingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Repository cache Tests")
+class RepositoryCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private BorrowingRepository borrowingRepository;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void cleanUp() {
+        borrowingRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        memberRepository.deleteAllInBatch();
+        cacheManager.getCache(CacheConfig.BOOKS).clear();
+        cacheManager.getCache(CacheConfig.MEMBERS).clear();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from the cache")
+    void shouldServeRepeatedLookupsFromCache() {
+        // Given
+        Book book = bookRepository.save(createBook("Cached Title", 3));
+        CacheStats before = stats(CacheConfig.BOOKS);
+
+        // When
+        bookRepository.findById(book.getId());
+        bookRepository.findById(book.getId());
+        bookRepository.findById(book.getId());
+
+        // Then
+        CacheStats after = stats(CacheConfig.BOOKS).minus(before);
+        assertThat(after.missCount()).isEqualTo(1);
+        assertThat(after.hitCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should evict the cached book on stock changes and updates")
+    void shouldEvictOnWrites() {
+        // Given
+        Book book = bookRepository.save(createBook("Cached Title", 3));
+        Member member = memberRepository.save(createMember("Reader"));
+        bookRepository.findById(book.getId());
+
+        // When
+        borrowingService.borrowBook(book.getId(), member.getId());
+
+        // Then
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getAmount()).isEqualTo(2);
+
+        // When
+        Book cached = bookRepository.findById(book.getId()).orElseThrow();
+        cached.setTitle("Renamed Title");
+        bookRepository.save(cached);
+
+        // Then
+        assertThat(cacheManager.getCache(CacheConfig.BOOKS).get(book.getId())).isNull();
+        assertThat(bookRepository.findById(book.getId()).orElseThrow().getTitle()).isEqualTo("Renamed Title");
+    }
+
+    @Test
+    @DisplayName("Should not hand the cached member to a write transaction that rolls back")
+    void shouldBypassCacheInWriteTransactions() {
+        // Given
+        Member member = memberRepository.save(createMember("Reader"));
+        Member cached = memberRepository.findById(member.getId()).orElseThrow();
+
+        // When
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Member loaded = memberRepository.findById(member.getId()).orElseThrow();
+            assertThat(loaded).isNotSameAs(cached);
+            loaded.setName("Uncommitted Name");
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertThat(memberRepository.findById(member.getId()).orElseThrow()).isSameAs(cached);
+        assertThat(cached.getName()).isEqualTo("Reader");
+    }
+
+    // Helper methods
+    private CacheStats stats(String cacheName) {
+        TransactionAwareCacheDecorator cache = (TransactionAwareCacheDecorator) cacheManager.getCache(cacheName);
+        return ((CaffeineCache) cache.getTargetCache()).getNativeCache().stats();
+    }
+
+    private Book createBook(String title, int amount) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Cache Author");
+        book.setAmount(amount);
+        return book;
+    }
+
+    private Member createMember(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setMemberDate(LocalDateTime.now());
+        return member;
+    }
+}
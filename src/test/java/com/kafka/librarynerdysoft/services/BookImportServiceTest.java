@@ -0,0 +1,124 @@
+package com.kafka.librarynerdysoft.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.librarynerdysoft.dto.ImportResult;
+import com.kafka.librarynerdysoft.entity.BookCopy;
+import com.kafka.librarynerdysoft.projection.UpsertedTitle;
+import com.kafka.librarynerdysoft.repository.BookCopyRepository;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.service.BookImportService;
+import com.kafka.librarynerdysoft.service.BookSearchIndex;
+import com.kafka.librarynerdysoft.service.CatalogVersions;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookImportService Tests")
+class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookCopyRepository bookCopyRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    private BookImportService bookImportService;
+
+    @BeforeEach
+    void setUp() {
+        bookImportService = new BookImportService(bookRepository, bookCopyRepository, entityManager,
+                new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), bookSearchIndex,
+                catalogVersions);
+    }
+
+    @Test
+    @DisplayName("Should aggregate duplicate CSV rows into one insert or update per title")
+    @SuppressWarnings("unchecked")
+    void shouldAggregateCsvRows() throws IOException {
+        // Given
+        when(bookRepository.addCopies(anyList(), anyList(), anyList())).thenReturn(List.of(
+                new UpsertedTitle(7L, "Dune", "Frank Herbert", false),
+                new UpsertedTitle(8L, "Hello, World", "Jane Smith", true)));
+        String csv = """
+                title,author
+                Dune,Frank Herbert
+                "Dune",Frank Herbert
+                "Hello, World",Jane Smith
+                Hello\\, no author
+                lowercase title,Jane Smith
+                """;
+
+        // When
+        ImportResult result = bookImportService.importBooks(body(csv), false);
+
+        // Then
+        assertThat(result.getRows()).isEqualTo(3);
+        assertThat(result.getRejectedRows()).isEqualTo(2);
+        assertThat(result.getTitlesCreated()).isEqualTo(1);
+        assertThat(result.getTitlesUpdated()).isEqualTo(1);
+        verify(bookRepository).addCopies(List.of("Dune", "Hello, World"), List.of("Frank Herbert", "Jane Smith"), List.of(2, 1));
+
+        ArgumentCaptor<List<BookCopy>> copies = ArgumentCaptor.forClass(List.class);
+        verify(bookCopyRepository).saveAll(copies.capture());
+        assertThat(copies.getValue()).hasSize(3);
+        verify(entityManager).clear();
+        verify(bookSearchIndex).put(argThat(book -> book.getId() == 8L && book.getTitle().equals("Hello, World")));
+    }
+
+    @Test
+    @DisplayName("Should read NDJSON rows")
+    void shouldReadNdjsonRows() throws IOException {
+        // Given
+        when(bookRepository.addCopies(anyList(), anyList(), anyList()))
+                .thenReturn(List.of(new UpsertedTitle(1L, "Dune", "Frank Herbert", true)));
+        String ndjson = """
+                {"title":"Dune","author":"Frank Herbert"}
+                not json
+                {"title":"Dune","author":"Frank Herbert"}
+                """;
+
+        // When
+        ImportResult result = bookImportService.importBooks(body(ndjson), true);
+
+        // Then
+        assertThat(result.getRows()).isEqualTo(2);
+        assertThat(result.getRejectedRows()).isEqualTo(1);
+        assertThat(result.getTitlesCreated()).isEqualTo(1);
+        verify(bookRepository).addCopies(List.of("Dune"), List.of("Frank Herbert"), List.of(2));
+        verify(bookCopyRepository).saveAll(any());
+    }
+
+    // Helper methods
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package com.kafka.librarynerdysoft.services;
+
+import com.kafka.librarynerdysoft.dto.BookSearchResult;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.service.BookSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookSearchIndex Tests")
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex(bookRepository, transactionManager);
+        index.put(createTestBook(1L, "The Lord of the Rings", "J. R. R. Tolkien"));
+        index.put(createTestBook(2L, "The Hobbit", "J. R. R. Tolkien"));
+        index.put(createTestBook(3L, "Tolkien: A Biography", "Humphrey Carpenter"));
+        index.put(createTestBook(4L, "Crime and Punishment", "Fyodor Dostoevsky"));
+        index.put(createTestBook(5L, "Les Misérables", "Victor Hugo"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should match word prefixes regardless of case and accents")
+    void shouldMatchCaseFoldedPrefixes() {
+        // When & Then
+        assertThat(index.search("HOBB", 0, 10)).extracting(BookSearchResult::getId).containsExactly(2L);
+        assertThat(index.search("miserables", 0, 10)).extracting(BookSearchResult::getId).containsExactly(5L);
+        assertThat(index.search("dostoev crime", 0, 10)).extracting(BookSearchResult::getId).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("Should require every term and rank title matches above author matches")
+    void shouldRankTitleMatchesFirst() {
+        // When
+        var results = index.search("tolkien", 0, 10);
+
+        // Then
+        assertThat(results).extracting(BookSearchResult::getId).containsExactly(3L, 2L, 1L);
+        assertThat(index.search("tolkien hobbit", 0, 10)).extracting(BookSearchResult::getId).containsExactly(2L);
+        assertThat(index.search("tolkien dune", 0, 10)).isEmpty();
+        assertThat(index.search("  ", 0, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should page through ranked results")
+    void shouldPageResults() {
+        // When & Then
+        assertThat(index.search("tolkien", 0, 2)).extracting(BookSearchResult::getId).containsExactly(3L, 2L);
+        assertThat(index.search("tolkien", 1, 2)).extracting(BookSearchResult::getId).containsExactly(1L);
+        assertThat(index.search("tolkien", 2, 2)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reindex updated titles and forget removed books")
+    void shouldApplyUpdatesAndRemovals() {
+        // When
+        index.put(createTestBook(2L, "There and Back Again", "J. R. R. Tolkien"));
+        index.remove(4L);
+
+        // Then
+        assertThat(index.search("hobbit", 0, 10)).isEmpty();
+        assertThat(index.search("back again", 0, 10)).extracting(BookSearchResult::getId).containsExactly(2L);
+        assertThat(index.search("crime", 0, 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should apply changes made in a transaction only after commit")
+    void shouldDeferChangesUntilCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        index.put(createTestBook(6L, "Dune", "Frank Herbert"));
+
+        // When & Then
+        assertThat(index.search("dune", 0, 10)).isEmpty();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(index.search("dune", 0, 10)).extracting(BookSearchResult::getId).containsExactly(6L);
+    }
+
+    // Helper methods
+    private Book createTestBook(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setAmount(1);
+        return book;
+    }
+}
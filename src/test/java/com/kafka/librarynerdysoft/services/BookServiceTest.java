@@ -1,18 +1,26 @@
 package com.kafka.librarynerdysoft.services;
 
 import com.kafka.librarynerdysoft.dto.BookCreatedRequest;
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.dto.CursorPage;
 import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.BookCopy;
+import com.kafka.librarynerdysoft.repository.BookCopyRepository;
 import com.kafka.librarynerdysoft.repository.BookRepository;
-import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.service.BookSearchIndex;
 import com.kafka.librarynerdysoft.service.BookService;
+import com.kafka.librarynerdysoft.service.CatalogVersions;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.List;
@@ -32,7 +40,13 @@ class BookServiceTest {
     private BookRepository bookRepository;
 
     @Mock
-    private BorrowingRepository borrowingRepository;
+    private BookCopyRepository bookCopyRepository;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private CatalogVersions catalogVersions;
 
     @InjectMocks
     private BookService bookService;
@@ -47,23 +61,41 @@ class BookServiceTest {
     }
 
     @Nested
-    class GetAllBooksTests {
+    class GetBooksTests {
+
+        @Test
+        void shouldReturnLastPageWithoutCursor() {
+            // Given
+            List<BookResponse> books = Arrays.asList(
+                    BookResponse.of(testBook, testBook.getAmount()),
+                    BookResponse.of(createTestBook(2L, "Another Book", "Another Author", 2), 2)
+            );
+            when(bookRepository.findPage(0L, false, Limit.of(3))).thenReturn(books);
+
+            // When
+            CursorPage<BookResponse> result = bookService.getBooks(null, 2);
+
+            // Then
+            assertThat(result.getItems()).isEqualTo(books);
+            assertThat(result.getNextCursor()).isNull();
+        }
 
         @Test
-        void shouldReturnAllBooks() {
+        void shouldReturnNextCursorWhenMoreRowsExist() {
             // Given
-            List<Book> books = Arrays.asList(
-                    testBook,
-                    createTestBook(2L, "Another Book", "Another Author", 2)
+            List<BookResponse> books = Arrays.asList(
+                    BookResponse.of(createTestBook(5L, "Fifth Book", "Test Author", 1), 1),
+                    BookResponse.of(createTestBook(6L, "Sixth Book", "Test Author", 1), 1),
+                    BookResponse.of(createTestBook(7L, "Seventh Book", "Test Author", 1), 1)
             );
-            when(bookRepository.findAll()).thenReturn(books);
+            when(bookRepository.findPage(4L, false, Limit.of(3))).thenReturn(books);
 
             // When
-            List<Book> result = bookService.getAllBooks();
+            CursorPage<BookResponse> result = bookService.getBooks(4L, 2);
 
             // Then
-            assertThat(result).hasSize(2);
-            assertThat(result).isEqualTo(books);
+            assertThat(result.getItems()).extracting(BookResponse::getId).containsExactly(5L, 6L);
+            assertThat(result.getNextCursor()).isEqualTo(6L);
         }
     }
 
@@ -96,38 +128,69 @@ class BookServiceTest {
         }
     }
 
+    @Nested
+    class ToResponseTests {
+
+        @Test
+        void shouldReportAmountWithoutCountingCopies() {
+            // When
+            BookResponse result = bookService.toResponse(testBook);
+
+            // Then
+            assertThat(result.getAvailableCopies()).isEqualTo(testBook.getAmount());
+            verify(bookCopyRepository, never()).countByBookIdAndAvailableTrue(any());
+        }
+
+        @Test
+        void shouldCountFreeCopiesWithCopyLevelInventory() {
+            // Given
+            ReflectionTestUtils.setField(bookService, "copyLevelInventory", true);
+            when(bookCopyRepository.countByBookIdAndAvailableTrue(1L)).thenReturn(3);
+
+            // When
+            BookResponse result = bookService.toResponse(testBook);
+
+            // Then
+            assertThat(result.getAvailableCopies()).isEqualTo(3);
+        }
+    }
+
     @Nested
     class CreateBookTests {
 
         @Test
-        void shouldCreateNewBookWhenBookDoesntExist() {
+        void shouldAddCopyThroughUpsert() {
             // Given
-            when(bookRepository.findByTitleAndAuthor("Test Book", "Test Author"))
-                    .thenReturn(Optional.empty());
-            when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+            when(bookRepository.addCopy("Test Book", "Test Author")).thenReturn(1L);
+            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
 
             // When
             Book result = bookService.createBook(testRequest);
 
             // Then
-            assertThat(result).isNotNull();
-            verify(bookRepository).save(any(Book.class));
+            assertThat(result).isEqualTo(testBook);
+            verify(bookRepository, never()).findByTitleAndAuthor(any(), any());
+            verify(bookRepository, never()).save(any(Book.class));
+            verify(bookCopyRepository).save(any(BookCopy.class));
+            verify(bookSearchIndex).put(testBook);
         }
 
         @Test
-        void shouldIncrementAmountWhenBookExists() {
+        void shouldAttachCopyToUpsertedBook() {
             // Given
-            Book existingBook = createTestBook(1L, "Test Book", "Test Author", 3);
-            when(bookRepository.findByTitleAndAuthor("Test Book", "Test Author"))
-                    .thenReturn(Optional.of(existingBook));
-            when(bookRepository.save(existingBook)).thenReturn(existingBook);
+            Book existingBook = createTestBook(7L, "Test Book", "Test Author", 4);
+            when(bookRepository.addCopy("Test Book", "Test Author")).thenReturn(7L);
+            when(bookRepository.findById(7L)).thenReturn(Optional.of(existingBook));
+            ArgumentCaptor<BookCopy> copy = ArgumentCaptor.forClass(BookCopy.class);
 
             // When
             Book result = bookService.createBook(testRequest);
 
             // Then
             assertThat(result.getAmount()).isEqualTo(4);
-            verify(bookRepository).save(existingBook);
+            verify(bookCopyRepository).save(copy.capture());
+            assertThat(copy.getValue().getBook()).isEqualTo(existingBook);
+            assertThat(copy.getValue().isAvailable()).isTrue();
         }
     }
 
@@ -149,6 +212,8 @@ class BookServiceTest {
             assertThat(testBook.getTitle()).isEqualTo("Updated Title");
             assertThat(testBook.getAuthor()).isEqualTo("Updated Author");
             verify(bookRepository).save(testBook);
+            verify(bookSearchIndex).put(testBook);
+            verify(catalogVersions).booksChanged();
         }
 
         @Test
@@ -172,41 +237,40 @@ class BookServiceTest {
         @Test
         void shouldDeleteBookWhenNotBorrowed() {
             // Given
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-            when(borrowingRepository.countByBook(testBook)).thenReturn(0L);
+            when(bookRepository.deleteIfNotBorrowed(1L)).thenReturn(1);
 
             // When
             bookService.deleteBook(1L);
 
             // Then
-            verify(bookRepository).deleteById(1L);
+            verify(bookCopyRepository).deleteAllByBookIdIfNotBorrowed(1L);
+            verify(bookRepository).deleteIfNotBorrowed(1L);
+            verify(bookRepository, never()).existsById(any());
+            verify(bookSearchIndex).remove(1L);
         }
 
         @Test
         void shouldThrowExceptionWhenBookNotFoundForDeletion() {
             // Given
-            when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+            when(bookRepository.deleteIfNotBorrowed(1L)).thenReturn(0);
+            when(bookRepository.existsById(1L)).thenReturn(false);
 
             // When & Then
             assertThatThrownBy(() -> bookService.deleteBook(1L))
                     .isInstanceOf(EntityNotFoundException.class)
                     .hasMessage("Book with id 1 not found");
-
-            verify(bookRepository, never()).deleteById(any());
         }
 
         @Test
         void shouldThrowExceptionWhenBookIsBorrowed() {
             // Given
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-            when(borrowingRepository.countByBook(testBook)).thenReturn(1L);
+            when(bookRepository.deleteIfNotBorrowed(1L)).thenReturn(0);
+            when(bookRepository.existsById(1L)).thenReturn(true);
 
             // When & Then
             assertThatThrownBy(() -> bookService.deleteBook(1L))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Member with id 1 is borrowing a book");
-
-            verify(bookRepository, never()).deleteById(any());
         }
     }
 
@@ -1,21 +1,44 @@
 package com.kafka.librarynerdysoft.services;
 
+import com.kafka.librarynerdysoft.dto.BatchItemResult;
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.dto.BorrowBookRequest;
+import com.kafka.librarynerdysoft.dto.CheckoutResult;
 import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.BookCopy;
 import com.kafka.librarynerdysoft.entity.Borrowing;
+import com.kafka.librarynerdysoft.entity.CirculationEventType;
+import com.kafka.librarynerdysoft.entity.Hold;
+import com.kafka.librarynerdysoft.entity.HoldStatus;
 import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.entity.OutboxEvent;
+import com.kafka.librarynerdysoft.projection.TitleBorrowCount;
+import com.kafka.librarynerdysoft.repository.BookCopyRepository;
 import com.kafka.librarynerdysoft.repository.BookRepository;
 import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.HoldRepository;
 import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.repository.OutboxEventRepository;
 import com.kafka.librarynerdysoft.service.BorrowingService;
+import com.kafka.librarynerdysoft.service.CatalogVersions;
+import com.kafka.librarynerdysoft.service.HoldsClosedEvent;
+import com.kafka.librarynerdysoft.service.StockReleasedEvent;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
@@ -23,9 +46,11 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +67,24 @@ class BorrowingServiceTest {
     @Mock
     private MemberRepository memberRepository;
 
+    @Mock
+    private BookCopyRepository bookCopyRepository;
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private BorrowingService borrowingService;
 
@@ -67,9 +110,10 @@ class BorrowingServiceTest {
         void shouldBorrowBookSuccessfully() {
             // Given
             when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-            when(borrowingRepository.countByMember(testMember)).thenReturn(2L);
-            when(borrowingRepository.findByBookAndMember(testBook, testMember)).thenReturn(Optional.empty());
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(borrowingRepository.existsByBookIdAndMemberId(1L, 1L)).thenReturn(false);
+            when(bookRepository.decrementAmount(1L)).thenReturn(1);
+            when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
             when(borrowingRepository.save(any(Borrowing.class))).thenReturn(testBorrowing);
 
             // When
@@ -79,10 +123,36 @@ class BorrowingServiceTest {
             assertThat(result).isNotNull();
             assertThat(result.getBook()).isEqualTo(testBook);
             assertThat(result.getMember()).isEqualTo(testMember);
-            assertThat(testBook.getAmount()).isEqualTo(4);
 
-            verify(bookRepository).save(testBook);
+            verify(memberRepository).incrementActiveLoans(1L, 3);
+            verify(bookRepository).decrementAmount(1L);
+            verify(bookRepository, never()).save(any());
             verify(borrowingRepository).save(any(Borrowing.class));
+            verify(borrowingRepository, never()).countByMember(any());
+            // the loan only needs the book's foreign key, the row itself is never loaded
+            verify(bookRepository, never()).findById(any());
+            verify(outboxEventRepository).save(argThat((OutboxEvent event) -> event.getType() == CirculationEventType.BORROWED
+                    && event.getBookId().equals(1L) && event.getMemberId().equals(1L)));
+            verify(catalogVersions).booksChanged();
+            verify(catalogVersions).membersChanged();
+        }
+
+        @Test
+        @DisplayName("Should leave the copy to the waitlist while holds are queued for the title")
+        void shouldNotBorrowAheadOfTheWaitlist() {
+            // Given
+            when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(borrowingRepository.existsByBookIdAndMemberId(1L, 1L)).thenReturn(false);
+            when(holdRepository.existsByBookIdAndStatus(1L, HoldStatus.WAITING)).thenReturn(true);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.borrowBook(1L, 1L))
+                    .hasMessage("Book is no available for borrowing");
+            verify(bookRepository, never()).decrementAmount(any());
+            verify(borrowingRepository, never()).save(any());
+            verify(holdRepository, never()).save(any());
+            verify(catalogVersions, never()).booksChanged();
         }
 
         @Test
@@ -97,6 +167,8 @@ class BorrowingServiceTest {
                     .hasMessage("Member Not Found");
 
             verify(bookRepository, never()).findById(any());
+            verify(bookRepository, never()).decrementAmount(any());
+            verify(memberRepository, never()).incrementActiveLoans(any(Long.class), anyInt());
         }
 
         @Test
@@ -104,26 +176,34 @@ class BorrowingServiceTest {
         void shouldThrowExceptionWhenBookNotFound() {
             // Given
             when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
-            when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(bookRepository.decrementAmount(1L)).thenReturn(0);
+            when(bookRepository.existsById(1L)).thenReturn(false);
 
             // When & Then
             assertThatThrownBy(() -> borrowingService.borrowBook(1L, 1L))
                     .isInstanceOf(EntityNotFoundException.class)
                     .hasMessage("Book Not Found");
+
+            verify(borrowingRepository, never()).save(any());
         }
 
         @Test
         @DisplayName("Should throw RuntimeException when book is not available")
         void shouldThrowExceptionWhenBookNotAvailable() {
             // Given
-            testBook.setAmount(0);
             when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(bookRepository.decrementAmount(1L)).thenReturn(0);
+            when(bookRepository.existsById(1L)).thenReturn(true);
 
             // When & Then
             assertThatThrownBy(() -> borrowingService.borrowBook(1L, 1L))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Book is no available for borrowing");
+
+            verify(borrowingRepository, never()).save(any());
+            assertThat(rejections(BorrowingService.OUT_OF_STOCK)).isEqualTo(1);
         }
 
         @Test
@@ -131,13 +211,15 @@ class BorrowingServiceTest {
         void shouldThrowExceptionWhenMemberExceedsBorrowLimit() {
             // Given
             when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-            when(borrowingRepository.countByMember(testMember)).thenReturn(4L);
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(0);
 
             // When & Then
             assertThatThrownBy(() -> borrowingService.borrowBook(1L, 1L))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Member is no allowed to borrow any more books");
+
+            verify(bookRepository, never()).decrementAmount(any());
+            assertThat(rejections(BorrowingService.LIMIT_REACHED)).isEqualTo(1);
         }
 
         @Test
@@ -145,14 +227,174 @@ class BorrowingServiceTest {
         void shouldThrowExceptionWhenBookAlreadyBorrowed() {
             // Given
             when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-            when(borrowingRepository.countByMember(testMember)).thenReturn(2L);
-            when(borrowingRepository.findByBookAndMember(testBook, testMember)).thenReturn(Optional.of(testBorrowing));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(borrowingRepository.existsByBookIdAndMemberId(1L, 1L)).thenReturn(true);
 
             // When & Then
             assertThatThrownBy(() -> borrowingService.borrowBook(1L, 1L))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Book is already borrowed");
+
+            verify(bookRepository, never()).decrementAmount(any());
+            assertThat(rejections(BorrowingService.ALREADY_BORROWED)).isEqualTo(1);
+            assertThat(rejections(BorrowingService.OUT_OF_STOCK)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("borrowOrHold method")
+    class BorrowOrHoldTests {
+
+        @Test
+        @DisplayName("Should lend the book when it is in stock and nobody is waiting")
+        void shouldBorrowWhenInStock() {
+            // Given
+            when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(holdRepository.existsByBookIdAndStatus(1L, HoldStatus.WAITING)).thenReturn(false);
+            when(bookRepository.decrementAmount(1L)).thenReturn(1);
+            when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+            when(borrowingRepository.save(any(Borrowing.class))).thenReturn(testBorrowing);
+
+            // When
+            CheckoutResult result = borrowingService.borrowOrHold(1L, 1L);
+
+            // Then
+            assertThat(result.isQueued()).isFalse();
+            assertThat(result.getBorrowing()).isEqualTo(testBorrowing);
+            verify(holdRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should queue a hold that keeps the loan slot when the book is out of stock")
+        void shouldQueueHoldWhenOutOfStock() {
+            // Given
+            when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(holdRepository.existsByBookIdAndStatus(1L, HoldStatus.WAITING)).thenReturn(false);
+            when(bookRepository.decrementAmount(1L)).thenReturn(0);
+            when(bookRepository.existsById(1L)).thenReturn(true);
+            when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+            when(holdRepository.save(any(Hold.class))).thenAnswer(invocation -> {
+                Hold hold = invocation.getArgument(0);
+                hold.setId(7L);
+                return hold;
+            });
+            when(holdRepository.countAhead(7L)).thenReturn(0L);
+
+            // When
+            CheckoutResult result = borrowingService.borrowOrHold(1L, 1L);
+
+            // Then
+            assertThat(result.isQueued()).isTrue();
+            assertThat(result.getHold().getId()).isEqualTo(7L);
+            assertThat(result.getHold().getStatus()).isEqualTo(HoldStatus.WAITING);
+            assertThat(result.getHold().getPosition()).isZero();
+            verify(memberRepository, never()).decrementActiveLoans(any(Long.class));
+            verify(borrowingRepository, never()).save(any());
+            assertThat(rejections(BorrowingService.OUT_OF_STOCK)).isZero();
+            assertThat(meterRegistry.counter(BorrowingService.HOLDS, "event", "queued").count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should queue behind waiting patrons without taking stock")
+        void shouldQueueBehindWaitingHolds() {
+            // Given
+            when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(holdRepository.existsByBookIdAndStatus(1L, HoldStatus.WAITING)).thenReturn(true);
+            when(holdRepository.existsByBookIdAndMemberIdAndStatus(1L, 1L, HoldStatus.WAITING)).thenReturn(false);
+            when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+            when(holdRepository.save(any(Hold.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            when(holdRepository.countAhead(any())).thenReturn(2L);
+
+            // When
+            CheckoutResult result = borrowingService.borrowOrHold(1L, 1L);
+
+            // Then
+            assertThat(result.getHold().getPosition()).isEqualTo(2L);
+            verify(bookRepository, never()).decrementAmount(any());
+        }
+
+        @Test
+        @DisplayName("Should throw RuntimeException when the member already waits for the book")
+        void shouldThrowExceptionWhenAlreadyOnHold() {
+            // Given
+            when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(holdRepository.existsByBookIdAndStatus(1L, HoldStatus.WAITING)).thenReturn(true);
+            when(holdRepository.existsByBookIdAndMemberIdAndStatus(1L, 1L, HoldStatus.WAITING)).thenReturn(true);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.borrowOrHold(1L, 1L))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("Book is already on hold");
+
+            verify(holdRepository, never()).save(any());
+            assertThat(rejections(BorrowingService.ALREADY_QUEUED)).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    @DisplayName("fulfilHolds method")
+    class FulfilHoldsTests {
+
+        @Test
+        @DisplayName("Should lend copies to the oldest holds until the stock runs out")
+        void shouldFulfilOldestHolds() {
+            // Given
+            Member second = createTestMember(2L, "Jane Doe");
+            Hold first = createTestHold(10L, testBook, testMember);
+            Hold next = createTestHold(11L, testBook, second);
+            when(holdRepository.findFulfillable(Limit.of(100))).thenReturn(List.of(first, next));
+            when(borrowingRepository.findAllByMemberIdIn(Set.of(1L, 2L))).thenReturn(List.of());
+            when(bookRepository.decrementAmount(1L)).thenReturn(1, 0);
+            when(holdRepository.close(eq(10L), eq(HoldStatus.FULFILLED), any())).thenReturn(1);
+
+            // When
+            int fulfilled = borrowingService.fulfilHolds(100);
+
+            // Then
+            assertThat(fulfilled).isEqualTo(1);
+            verify(holdRepository, never()).close(eq(11L), any(), any());
+            verify(borrowingRepository).saveAll(argThat(borrowings ->
+                    borrowings.iterator().next().getMember() == testMember));
+            verify(eventPublisher).publishEvent(new HoldsClosedEvent(List.of(10L)));
+            // the slot was taken when the hold was queued
+            verify(memberRepository, never()).incrementActiveLoans(any(Long.class), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should put the copy back when another instance fulfilled the hold first")
+        void shouldPutCopyBackWhenHoldAlreadyClosed() {
+            // Given
+            when(holdRepository.findFulfillable(Limit.of(100))).thenReturn(List.of(createTestHold(10L, testBook, testMember)));
+            when(bookRepository.decrementAmount(1L)).thenReturn(1);
+            when(holdRepository.close(eq(10L), eq(HoldStatus.FULFILLED), any())).thenReturn(0);
+
+            // When
+            int fulfilled = borrowingService.fulfilHolds(100);
+
+            // Then
+            assertThat(fulfilled).isZero();
+            verify(bookRepository).incrementAmount(1L);
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+
+        @Test
+        @DisplayName("Should cancel a hold and free its slot when the member already has the book")
+        void shouldCancelHoldWhenAlreadyBorrowed() {
+            // Given
+            when(holdRepository.findFulfillable(Limit.of(100))).thenReturn(List.of(createTestHold(10L, testBook, testMember)));
+            when(borrowingRepository.findAllByMemberIdIn(Set.of(1L))).thenReturn(List.of(testBorrowing));
+            when(holdRepository.close(eq(10L), eq(HoldStatus.CANCELLED), any())).thenReturn(1);
+
+            // When
+            borrowingService.fulfilHolds(100);
+
+            // Then
+            verify(memberRepository).decrementActiveLoans(1L);
+            verify(bookRepository, never()).decrementAmount(any());
         }
     }
 
@@ -164,16 +406,254 @@ class BorrowingServiceTest {
         @DisplayName("Should successfully return book")
         void shouldReturnBookSuccessfully() {
             // Given
+            when(borrowingRepository.deleteByBookIdAndMemberId(1L, 1L)).thenReturn(1);
+
+            // When
+            borrowingService.returnBook(1L, 1L);
+
+            // Then
+            verify(borrowingRepository).deleteByBookIdAndMemberId(1L, 1L);
+            verify(bookRepository).incrementAmount(1L);
+            verify(memberRepository).decrementActiveLoans(1L);
+            verify(memberRepository, never()).findById(any());
+            verify(bookRepository, never()).save(any());
+            // wakes the hold fulfiller once the return commits
+            verify(eventPublisher).publishEvent(new StockReleasedEvent(List.of(1L)));
+            verify(outboxEventRepository).save(argThat((OutboxEvent event) -> event.getType() == CirculationEventType.RETURNED
+                    && event.getBookId().equals(1L) && event.getMemberId().equals(1L)));
+        }
+
+        @Test
+        @DisplayName("Should not restore stock when book was not borrowed by member")
+        void shouldThrowExceptionWhenBorrowingNotFound() {
+            // Given
+            when(borrowingRepository.deleteByBookIdAndMemberId(1L, 1L)).thenReturn(0);
+            when(memberRepository.existsById(1L)).thenReturn(true);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.returnBook(1L, 1L))
+                    .isInstanceOf(EntityNotFoundException.class)
+                    .hasMessage("Borrowing Not Found");
+
+            verify(bookRepository, never()).incrementAmount(any());
+            verify(memberRepository, never()).decrementActiveLoans(any(Long.class));
+            verify(outboxEventRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should throw EntityNotFoundException when returning for an unknown member")
+        void shouldThrowExceptionWhenReturningForUnknownMember() {
+            // Given
+            when(borrowingRepository.deleteByBookIdAndMemberId(1L, 1L)).thenReturn(0);
+            when(memberRepository.existsById(1L)).thenReturn(false);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.returnBook(1L, 1L))
+                    .isInstanceOf(EntityNotFoundException.class)
+                    .hasMessage("Member Not Found");
+        }
+    }
+
+    @Nested
+    @DisplayName("returnAllBooks method")
+    class ReturnAllBooksTests {
+
+        @Test
+        @DisplayName("Should restore stock for every title and delete the loans in bulk")
+        void shouldReturnAllBooks() {
+            // Given
+            when(memberRepository.resetActiveLoans(1L)).thenReturn(1);
+            when(borrowingRepository.findBookIdsByMemberId(1L)).thenReturn(List.of(4L, 5L, 6L));
+            when(borrowingRepository.deleteAllByMemberId(1L)).thenReturn(3);
+
+            // When
+            int returned = borrowingService.returnAllBooks(1L);
+
+            // Then
+            assertThat(returned).isEqualTo(3);
+            verify(outboxEventRepository).saveAll(argThat((List<OutboxEvent> events) ->
+                    events.stream().map(OutboxEvent::getBookId).toList().equals(List.of(4L, 5L, 6L))));
+            verify(bookRepository).incrementAmountsBorrowedBy(1L);
+            verify(bookCopyRepository, never()).releaseCopiesBorrowedBy(any());
+        }
+
+        @Test
+        @DisplayName("Should throw EntityNotFoundException when member not found")
+        void shouldThrowExceptionWhenMemberNotFound() {
+            // Given
+            when(memberRepository.resetActiveLoans(1L)).thenReturn(0);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.returnAllBooks(1L))
+                    .isInstanceOf(EntityNotFoundException.class)
+                    .hasMessage("Member Not Found");
+
+            verify(borrowingRepository, never()).deleteAllByMemberId(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("batch borrow and return")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Should report a result per item and batch the stock updates")
+        void shouldBorrowBooksInBatch() {
+            // Given
+            List<BorrowBookRequest> requests = List.of(
+                    createBorrowRequest(1L, 1L),
+                    createBorrowRequest(2L, 1L),
+                    createBorrowRequest(3L, 1L),
+                    createBorrowRequest(1L, 9L),
+                    createBorrowRequest(1L, 1L),
+                    createBorrowRequest(4L, 1L)
+            );
+            when(memberRepository.findAllById(Set.of(1L, 9L))).thenReturn(List.of(testMember));
+            when(bookRepository.findExistingIds(Set.of(1L, 2L, 3L, 4L))).thenReturn(Set.of(1L, 2L, 4L));
+            when(borrowingRepository.findAllByMemberIdIn(Set.of(1L, 9L))).thenReturn(List.of());
+            when(memberRepository.incrementActiveLoans(List.of(1L, 1L, 1L), 3)).thenReturn(new int[]{1, 1, 0});
+            when(bookRepository.decrementAmounts(List.of(1L, 2L))).thenReturn(new int[]{1, 0});
+            when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+
+            // When
+            List<BatchItemResult> results = borrowingService.borrowBooks(requests);
+
+            // Then
+            assertThat(results).extracting(BatchItemResult::isSuccess)
+                    .containsExactly(true, false, false, false, false, false);
+            assertThat(results).extracting(BatchItemResult::getError).containsExactly(
+                    null,
+                    "Book is no available for borrowing",
+                    "Book Not Found",
+                    "Member Not Found",
+                    "Book is already borrowed",
+                    "Member is no allowed to borrow any more books"
+            );
+            verify(bookRepository, never()).decrementAmount(any());
+            verify(memberRepository).decrementActiveLoans(List.of(1L));
+            verify(borrowingRepository).saveAll(any());
+            assertThat(rejections(BorrowingService.OUT_OF_STOCK)).isEqualTo(1);
+            assertThat(rejections(BorrowingService.ALREADY_BORROWED)).isEqualTo(1);
+            assertThat(rejections(BorrowingService.LIMIT_REACHED)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should not let a batch take copies of a title others are queued for")
+        void shouldKeepQueuedTitlesForTheWaitlist() {
+            // Given
+            List<BorrowBookRequest> requests = List.of(createBorrowRequest(1L, 1L), createBorrowRequest(2L, 1L));
+            when(memberRepository.findAllById(Set.of(1L))).thenReturn(List.of(testMember));
+            when(bookRepository.findExistingIds(Set.of(1L, 2L))).thenReturn(Set.of(1L, 2L));
+            when(holdRepository.findBookIdsByStatus(Set.of(1L, 2L), HoldStatus.WAITING)).thenReturn(Set.of(2L));
+            when(borrowingRepository.findAllByMemberIdIn(Set.of(1L))).thenReturn(List.of());
+            when(memberRepository.incrementActiveLoans(List.of(1L), 3)).thenReturn(new int[]{1});
+            when(bookRepository.decrementAmounts(List.of(1L))).thenReturn(new int[]{1});
+            when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+
+            // When
+            List<BatchItemResult> results = borrowingService.borrowBooks(requests);
+
+            // Then
+            assertThat(results).extracting(BatchItemResult::getError).containsExactly(null, "Book is no available for borrowing");
+            assertThat(rejections(BorrowingService.OUT_OF_STOCK)).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should reject items without a book id instead of failing the batch")
+        void shouldRejectItemsWithoutBookId() {
+            // Given
+            List<BorrowBookRequest> requests = List.of(createBorrowRequest(null, 1L), createBorrowRequest(null, 1L));
+            when(memberRepository.findAllById(Set.of(1L))).thenReturn(List.of(testMember));
+            when(borrowingRepository.findAllByMemberIdIn(Set.of(1L))).thenReturn(List.of());
+
+            // When
+            List<BatchItemResult> results = borrowingService.borrowBooks(requests);
+
+            // Then
+            assertThat(results).extracting(BatchItemResult::getError).containsExactly("Book Not Found", "Book Not Found");
+            verify(bookRepository, never()).findExistingIds(any());
+        }
+
+        @Test
+        @DisplayName("Should return borrowed books in one delete and one stock batch")
+        void shouldReturnBooksInBatch() {
+            // Given
+            Borrowing borrowing = createTestBorrowing(testBook, testMember);
+            List<BorrowBookRequest> requests = List.of(
+                    createBorrowRequest(1L, 1L),
+                    createBorrowRequest(1L, 1L),
+                    createBorrowRequest(2L, 1L)
+            );
+            when(borrowingRepository.findAllByMemberIdIn(Set.of(1L))).thenReturn(List.of(borrowing));
+
+            // When
+            List<BatchItemResult> results = borrowingService.returnBooks(requests);
+
+            // Then
+            assertThat(results).extracting(BatchItemResult::isSuccess).containsExactly(true, false, false);
+            verify(borrowingRepository).deleteAllInBatch(List.of(borrowing));
+            verify(bookRepository).incrementAmounts(List.of(1L));
+            verify(memberRepository).decrementActiveLoans(List.of(1L));
+        }
+    }
+
+    @Nested
+    @DisplayName("copy-level inventory")
+    class CopyLevelInventoryTests {
+
+        @BeforeEach
+        void enableCopyLevelInventory() {
+            ReflectionTestUtils.setField(borrowingService, "copyLevelInventory", true);
+        }
+
+        @Test
+        @DisplayName("Should claim a free copy instead of decrementing the amount")
+        void shouldClaimFreeCopy() {
+            // Given
+            BookCopy copy = new BookCopy(10L, testBook, true);
             when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
-            when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(bookCopyRepository.findFreeCopyForUpdate(1L)).thenReturn(Optional.of(copy));
+            when(bookCopyRepository.saveAndFlush(copy)).thenReturn(copy);
+            when(bookRepository.getReferenceById(1L)).thenReturn(testBook);
+            when(borrowingRepository.save(any(Borrowing.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+            // When
+            Borrowing result = borrowingService.borrowBook(1L, 1L);
+
+            // Then
+            assertThat(result.getCopy()).isEqualTo(copy);
+            assertThat(copy.isAvailable()).isFalse();
+            verify(bookRepository, never()).decrementAmount(any());
+        }
+
+        @Test
+        @DisplayName("Should throw RuntimeException when no free copy is left")
+        void shouldThrowExceptionWhenNoFreeCopy() {
+            // Given
+            when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
+            when(memberRepository.incrementActiveLoans(1L, 3)).thenReturn(1);
+            when(bookCopyRepository.findFreeCopyForUpdate(1L)).thenReturn(Optional.empty());
+            when(bookRepository.existsById(1L)).thenReturn(true);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.borrowBook(1L, 1L))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("Book is no available for borrowing");
+        }
+
+        @Test
+        @DisplayName("Should release the borrowed copy on return")
+        void shouldReleaseCopyOnReturn() {
+            // Given
+            when(borrowingRepository.deleteByBookIdAndMemberId(1L, 1L)).thenReturn(1);
 
             // When
             borrowingService.returnBook(1L, 1L);
 
             // Then
-            assertThat(testBook.getAmount()).isEqualTo(6);
-            verify(bookRepository).save(testBook);
-            verify(borrowingRepository).deleteByBookAndMember(testBook, testMember);
+            verify(bookCopyRepository).releaseBorrowedCopy(1L, 1L);
+            verify(bookRepository, never()).incrementAmount(any());
         }
     }
 
@@ -186,21 +666,36 @@ class BorrowingServiceTest {
         void shouldReturnBooksBorrowedByMember() {
             // Given
             String memberName = "John Doe";
-            List<Borrowing> borrowings = Arrays.asList(
-                    createTestBorrowing(testBook, testMember),
-                    createTestBorrowing(createTestBook(2L, "Another Book", "Another Author", 3), testMember)
+            List<BookResponse> books = Arrays.asList(
+                    BookResponse.of(testBook, testBook.getAmount()),
+                    BookResponse.of(createTestBook(2L, "Another Book", "Another Author", 3), 3)
             );
 
-            when(memberRepository.findByName(memberName)).thenReturn(Optional.of(testMember));
-            when(borrowingRepository.findAllByMember(testMember)).thenReturn(borrowings);
+            when(borrowingRepository.findBooksBorrowedByMemberName(memberName, false)).thenReturn(books);
 
             // When
-            List<Book> result = borrowingService.getBooksBorrowedByMemberName(memberName);
+            List<BookResponse> result = borrowingService.getBooksBorrowedByMemberName(memberName);
 
             // Then
             assertThat(result).hasSize(2);
-            assertThat(result).extracting(Book::getTitle)
+            assertThat(result).extracting(BookResponse::getTitle)
                     .containsExactly("Test Book", "Another Book");
+            verify(memberRepository, never()).existsByName(any());
+        }
+
+        @Test
+        @DisplayName("Should return empty list when member has no loans")
+        void shouldReturnEmptyListWhenMemberHasNoLoans() {
+            // Given
+            String memberName = "John Doe";
+            when(borrowingRepository.findBooksBorrowedByMemberName(memberName, false)).thenReturn(List.of());
+            when(memberRepository.existsByName(memberName)).thenReturn(true);
+
+            // When
+            List<BookResponse> result = borrowingService.getBooksBorrowedByMemberName(memberName);
+
+            // Then
+            assertThat(result).isEmpty();
         }
 
         @Test
@@ -208,7 +703,8 @@ class BorrowingServiceTest {
         void shouldThrowExceptionWhenMemberNotFoundByName() {
             // Given
             String memberName = "Non-existent Member";
-            when(memberRepository.findByName(memberName)).thenReturn(Optional.empty());
+            when(borrowingRepository.findBooksBorrowedByMemberName(memberName, false)).thenReturn(List.of());
+            when(memberRepository.existsByName(memberName)).thenReturn(false);
 
             // When & Then
             assertThatThrownBy(() -> borrowingService.getBooksBorrowedByMemberName(memberName))
@@ -217,6 +713,38 @@ class BorrowingServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("getBooksBorrowedByMemberId method")
+    class GetBooksBorrowedByMemberIdTests {
+
+        @Test
+        @DisplayName("Should return books borrowed by member id")
+        void shouldReturnBooksBorrowedByMemberId() {
+            // Given
+            BookResponse book = BookResponse.of(testBook, testBook.getAmount());
+            when(borrowingRepository.findBooksBorrowedByMemberId(1L, false)).thenReturn(List.of(book));
+
+            // When
+            List<BookResponse> result = borrowingService.getBooksBorrowedByMemberId(1L);
+
+            // Then
+            assertThat(result).containsExactly(book);
+        }
+
+        @Test
+        @DisplayName("Should throw EntityNotFoundException when member id not found")
+        void shouldThrowExceptionWhenMemberIdNotFound() {
+            // Given
+            when(borrowingRepository.findBooksBorrowedByMemberId(1L, false)).thenReturn(List.of());
+            when(memberRepository.existsById(1L)).thenReturn(false);
+
+            // When & Then
+            assertThatThrownBy(() -> borrowingService.getBooksBorrowedByMemberId(1L))
+                    .isInstanceOf(EntityNotFoundException.class)
+                    .hasMessage("Member Not Found");
+        }
+    }
+
     @Nested
     @DisplayName("getDistinctBorrowedBookTitles method")
     class GetDistinctBorrowedBookTitlesTests {
@@ -225,20 +753,29 @@ class BorrowingServiceTest {
         @DisplayName("Should return distinct borrowed book titles")
         void shouldReturnDistinctBorrowedBookTitles() {
             // Given
-            List<Borrowing> borrowings = Arrays.asList(
-                    createTestBorrowing(testBook, testMember),
-                    createTestBorrowing(testBook, createTestMember(2L, "Jane Doe")),
-                    createTestBorrowing(createTestBook(2L, "Another Book", "Another Author", 3), testMember)
-            );
+            when(borrowingRepository.findDistinctBorrowedTitles(Pageable.unpaged()))
+                    .thenReturn(List.of("Another Book", "Test Book"));
+
+            // When
+            List<String> result = borrowingService.getDistinctBorrowedBookTitles(0, null);
+
+            // Then
+            assertThat(result).containsExactly("Another Book", "Test Book");
+            verify(borrowingRepository, never()).findAll();
+        }
 
-            when(borrowingRepository.findAll()).thenReturn(borrowings);
+        @Test
+        @DisplayName("Should request the given page of titles")
+        void shouldReturnPageOfTitles() {
+            // Given
+            when(borrowingRepository.findDistinctBorrowedTitles(PageRequest.of(1, 1)))
+                    .thenReturn(List.of("Test Book"));
 
             // When
-            List<String> result = borrowingService.getDistinctBorrowedBookTitles();
+            List<String> result = borrowingService.getDistinctBorrowedBookTitles(1, 1);
 
             // Then
-            assertThat(result).hasSize(2);
-            assertThat(result).containsExactlyInAnyOrder("Test Book", "Another Book");
+            assertThat(result).containsExactly("Test Book");
         }
     }
 
@@ -247,28 +784,50 @@ class BorrowingServiceTest {
     class GetBookTitleToBorrowCountTests {
 
         @Test
-        @DisplayName("Should return book title to borrow count map")
+        @DisplayName("Should return book title to borrow count map in query order")
         void shouldReturnBookTitleToBorrowCountMap() {
             // Given
-            List<Borrowing> borrowings = Arrays.asList(
-                    createTestBorrowing(testBook, testMember),
-                    createTestBorrowing(testBook, createTestMember(2L, "Jane Doe")),
-                    createTestBorrowing(createTestBook(2L, "Another Book", "Another Author", 3), testMember)
+            when(borrowingRepository.countBorrowingsByTitle(Limit.unlimited())).thenReturn(List.of(
+                    createTitleBorrowCount("Test Book", 2L),
+                    createTitleBorrowCount("Another Book", 1L)
+            ));
+
+            // When
+            Map<String, Long> result = borrowingService.getBookTitleToBorrowCount(null);
+
+            // Then
+            assertThat(result).containsExactly(
+                    entry("Test Book", 2L),
+                    entry("Another Book", 1L)
             );
+            verify(borrowingRepository, never()).findAll();
+        }
 
-            when(borrowingRepository.findAll()).thenReturn(borrowings);
+        @Test
+        @DisplayName("Should pass top N down to the query")
+        void shouldLimitToTopTitles() {
+            // Given
+            when(borrowingRepository.countBorrowingsByTitle(Limit.of(1))).thenReturn(List.of(
+                    createTitleBorrowCount("Test Book", 2L)
+            ));
 
             // When
-            Map<String, Long> result = borrowingService.getBookTitleToBorrowCount();
+            Map<String, Long> result = borrowingService.getBookTitleToBorrowCount(1);
 
             // Then
-            assertThat(result).hasSize(2);
-            assertThat(result.get("Test Book")).isEqualTo(2L);
-            assertThat(result.get("Another Book")).isEqualTo(1L);
+            assertThat(result).containsOnlyKeys("Test Book");
         }
     }
 
     // Helper methods
+    private double rejections(String reason) {
+        return meterRegistry.counter(BorrowingService.REJECTIONS, "reason", reason).count();
+    }
+
+    private Hold createTestHold(Long id, Book book, Member member) {
+        return new Hold(id, book, member, HoldStatus.WAITING, LocalDateTime.now(), null);
+    }
+
     private Member createTestMember(Long id, String name) {
         Member member = new Member();
         member.setId(id);
@@ -286,6 +845,27 @@ class BorrowingServiceTest {
         return book;
     }
 
+    private TitleBorrowCount createTitleBorrowCount(String title, long borrowCount) {
+        return new TitleBorrowCount() {
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public long getBorrowCount() {
+                return borrowCount;
+            }
+        };
+    }
+
+    private BorrowBookRequest createBorrowRequest(Long bookId, Long memberId) {
+        BorrowBookRequest request = new BorrowBookRequest();
+        request.setBookId(bookId);
+        request.setMemberId(memberId);
+        return request;
+    }
+
     private Borrowing createTestBorrowing(Book book, Member member) {
         Borrowing borrowing = new Borrowing();
         borrowing.setBook(book);
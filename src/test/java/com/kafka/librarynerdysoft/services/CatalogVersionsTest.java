@@ -0,0 +1,83 @@
+package com.kafka.librarynerdysoft.services;
+
+import com.kafka.librarynerdysoft.dto.BookResponse;
+import com.kafka.librarynerdysoft.dto.MemberResponse;
+import com.kafka.librarynerdysoft.service.CatalogVersions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("CatalogVersions Tests")
+class CatalogVersionsTest {
+
+    @Test
+    @DisplayName("Should derive a book's tag from its version and available copies only")
+    void shouldTagBooksByVersion() {
+        // Given
+        BookResponse book = new BookResponse(1L, "Title", "Author", 2, 2, 3);
+        BookResponse sameRow = new BookResponse(1L, "Title", "Author", 2, 2, 3);
+        BookResponse updated = new BookResponse(1L, "Title", "Author", 1, 2, 4);
+        BookResponse copyBorrowed = new BookResponse(1L, "Title", "Author", 2, 1, 3);
+
+        // When & Then
+        assertThat(CatalogVersions.bookTag(sameRow)).isEqualTo(CatalogVersions.bookTag(book));
+        assertThat(CatalogVersions.bookTag(updated)).isNotEqualTo(CatalogVersions.bookTag(book));
+        assertThat(CatalogVersions.bookTag(copyBorrowed)).isNotEqualTo(CatalogVersions.bookTag(book));
+    }
+
+    @Test
+    @DisplayName("Should move a member's tag on active loan changes, which leave the version alone")
+    void shouldTagMembersByVersionAndLoans() {
+        // Given
+        LocalDateTime joined = LocalDateTime.now();
+        MemberResponse member = new MemberResponse(1L, "Reader", joined, 0, 1);
+        MemberResponse borrowed = new MemberResponse(1L, "Reader", joined, 1, 1);
+
+        // When & Then
+        assertThat(CatalogVersions.memberTag(borrowed)).isNotEqualTo(CatalogVersions.memberTag(member));
+    }
+
+    @Test
+    @DisplayName("Should tag a list by its catalog's change counter and bump one shard per write")
+    void shouldTagListsByChangeCounter() {
+        // Given
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("books"))).thenReturn(3L, 4L);
+        CatalogVersions catalogVersions = new CatalogVersions(jdbcTemplate);
+
+        // When
+        String tag = catalogVersions.booksTag();
+        catalogVersions.booksChanged();
+        String changed = catalogVersions.booksTag();
+
+        // Then
+        assertThat(tag).isEqualTo("\"books-3\"");
+        assertThat(changed).isEqualTo("\"books-4\"");
+        verify(jdbcTemplate).update(startsWith("update catalog_version"), eq("books"), intThat(shard -> shard >= 0 && shard < 8));
+    }
+
+    @Test
+    @DisplayName("Should match strong, weak and wildcard If-None-Match values")
+    void shouldMatchIfNoneMatch() {
+        // Given
+        String etag = CatalogVersions.bookTag(new BookResponse(1L, "Title", "Author", 1, 1, 0));
+
+        // When & Then
+        assertThat(CatalogVersions.matches(etag, etag)).isTrue();
+        assertThat(CatalogVersions.matches("\"other\", W/" + etag, etag)).isTrue();
+        assertThat(CatalogVersions.matches("*", etag)).isTrue();
+        assertThat(CatalogVersions.matches("\"other\"", etag)).isFalse();
+        assertThat(CatalogVersions.matches(null, etag)).isFalse();
+    }
+}
@@ -0,0 +1,96 @@
+package com.kafka.librarynerdysoft.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kafka.librarynerdysoft.dto.BorrowingExportRow;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.repository.BookRepository;
+import com.kafka.librarynerdysoft.repository.BorrowingRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.service.ExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExportService Tests")
+class ExportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private BorrowingRepository borrowingRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportService(bookRepository, memberRepository, borrowingRepository,
+                entityManager, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Should write one JSON document per line")
+    void shouldWriteNdjson() throws IOException {
+        // Given
+        when(borrowingRepository.streamAllForExport()).thenReturn(Stream.of(
+                new BorrowingExportRow(1L, 10L, 100L),
+                new BorrowingExportRow(2L, 20L, 200L)
+        ));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportBorrowings(out);
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "{\"id\":1,\"memberId\":10,\"bookId\":100}",
+                "{\"id\":2,\"memberId\":20,\"bookId\":200}"
+        );
+    }
+
+    @Test
+    @DisplayName("Should clear the persistence context while streaming")
+    void shouldClearPersistenceContextPeriodically() throws IOException {
+        // Given
+        when(bookRepository.streamAll()).thenReturn(IntStream.rangeClosed(1, 2500).mapToObj(this::createTestBook));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = exportService.exportBooks(out);
+
+        // Then
+        assertThat(count).isEqualTo(2500);
+        verify(entityManager, times(2)).clear();
+    }
+
+    // Helper methods
+    private Book createTestBook(int id) {
+        Book book = new Book();
+        book.setId((long) id);
+        book.setTitle("Book " + id);
+        book.setAuthor("Test Author");
+        book.setAmount(1);
+        return book;
+    }
+}
@@ -0,0 +1,144 @@
+package com.kafka.librarynerdysoft.services;
+
+import com.kafka.librarynerdysoft.dto.HoldResponse;
+import com.kafka.librarynerdysoft.entity.Book;
+import com.kafka.librarynerdysoft.entity.Hold;
+import com.kafka.librarynerdysoft.entity.HoldStatus;
+import com.kafka.librarynerdysoft.entity.Member;
+import com.kafka.librarynerdysoft.repository.HoldRepository;
+import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.service.CatalogVersions;
+import com.kafka.librarynerdysoft.service.HoldService;
+import com.kafka.librarynerdysoft.service.HoldsClosedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HoldService Tests")
+class HoldServiceTest {
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private MemberRepository memberRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogVersions catalogVersions;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private HoldService holdService;
+
+    private Hold testHold;
+
+    @BeforeEach
+    void setUp() {
+        Book book = new Book();
+        book.setId(1L);
+        Member member = new Member();
+        member.setId(2L);
+        testHold = new Hold(5L, book, member, HoldStatus.WAITING, LocalDateTime.now(), null);
+    }
+
+    @Test
+    @DisplayName("Should report the queue position of a waiting hold")
+    void shouldReturnWaitingHoldWithPosition() {
+        // Given
+        when(holdRepository.findById(5L)).thenReturn(Optional.of(testHold));
+        when(holdRepository.countAhead(5L)).thenReturn(3L);
+
+        // When
+        HoldResponse result = holdService.getHold(5L);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(HoldStatus.WAITING);
+        assertThat(result.getPosition()).isEqualTo(3L);
+        assertThat(result.getBookId()).isEqualTo(1L);
+        assertThat(result.getMemberId()).isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("Should leave the position out once the hold is closed")
+    void shouldReturnClosedHoldWithoutPosition() {
+        // Given
+        testHold.setStatus(HoldStatus.FULFILLED);
+        when(holdRepository.findById(5L)).thenReturn(Optional.of(testHold));
+
+        // When
+        HoldResponse result = holdService.getHold(5L);
+
+        // Then
+        assertThat(result.getPosition()).isNull();
+        verify(holdRepository, never()).countAhead(any());
+    }
+
+    @Test
+    @DisplayName("Should throw EntityNotFoundException when hold not found")
+    void shouldThrowExceptionWhenHoldNotFound() {
+        // Given
+        when(holdRepository.findById(5L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> holdService.getHold(5L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Hold Not Found");
+    }
+
+    @Test
+    @DisplayName("Should cancel a waiting hold and give the loan slot back")
+    void shouldCancelWaitingHold() {
+        // Given
+        when(holdRepository.findById(5L)).thenReturn(Optional.of(testHold));
+        when(holdRepository.close(eq(5L), eq(HoldStatus.CANCELLED), any())).thenReturn(1);
+
+        // When
+        HoldResponse result = holdService.cancelHold(5L);
+
+        // Then
+        assertThat(result.getStatus()).isEqualTo(HoldStatus.CANCELLED);
+        assertThat(result.getClosedAt()).isNotNull();
+        verify(memberRepository).decrementActiveLoans(2L);
+        verify(eventPublisher).publishEvent(new HoldsClosedEvent(List.of(5L)));
+    }
+
+    @Test
+    @DisplayName("Should throw RuntimeException when the hold is no longer waiting")
+    void shouldThrowExceptionWhenCancellingClosedHold() {
+        // Given
+        when(holdRepository.findById(5L)).thenReturn(Optional.of(testHold));
+        when(holdRepository.close(eq(5L), eq(HoldStatus.CANCELLED), any())).thenReturn(0);
+
+        // When & Then
+        assertThatThrownBy(() -> holdService.cancelHold(5L))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Hold is no longer waiting");
+
+        verify(memberRepository, never()).decrementActiveLoans(any(Long.class));
+    }
+}
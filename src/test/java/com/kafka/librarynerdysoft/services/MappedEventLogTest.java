@@ -0,0 +1,116 @@
+package com.kafka.librarynerdysoft.services;
+
+import com.kafka.librarynerdysoft.dto.CirculationEvent;
+import com.kafka.librarynerdysoft.entity.CirculationEventType;
+import com.kafka.librarynerdysoft.service.MappedEventLog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("MappedEventLog Tests")
+class MappedEventLogTest {
+
+    // room for four 48-byte records per segment
+    private static final long SEGMENT_BYTES = 200;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("Should number events and read them back across segments")
+    void shouldAppendAndReadAcrossSegments() throws IOException {
+        try (MappedEventLog log = new MappedEventLog(directory, SEGMENT_BYTES)) {
+            // Given
+            List<CirculationEvent> events = createEvents(1, 10);
+
+            // When
+            log.publish(events);
+
+            // Then
+            assertThat(events).extracting(CirculationEvent::getSequence).containsExactlyElementsOf(sequences(1, 10));
+            assertThat(log.lastSequence()).isEqualTo(10);
+            assertThat(log.read(0, 100)).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(events);
+            assertThat(log.read(3, 4)).extracting(CirculationEvent::getSequence).containsExactly(4L, 5L, 6L, 7L);
+            assertThat(log.read(10, 100)).isEmpty();
+        }
+        try (var files = Files.list(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".log"))).hasSize(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should read nothing past the end, even for the largest cursor")
+    void shouldReadNothingPastTheEnd() throws IOException {
+        try (MappedEventLog log = new MappedEventLog(directory, SEGMENT_BYTES)) {
+            // Given
+            log.publish(createEvents(1, 3));
+
+            // When & Then
+            assertThat(log.read(Long.MAX_VALUE, 100)).isEmpty();
+            assertThat(log.read(Long.MAX_VALUE - 1, 100)).isEmpty();
+            assertThat(log.read(-5, 100)).extracting(CirculationEvent::getSequence).containsExactly(1L, 2L, 3L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should continue after the last intact record when reopened")
+    void shouldRecoverAfterTornWrite() throws IOException {
+        // Given
+        try (MappedEventLog log = new MappedEventLog(directory, SEGMENT_BYTES)) {
+            log.publish(createEvents(1, 6));
+        }
+        // a crash in the middle of writing the sixth record
+        try (FileChannel segment = FileChannel.open(directory.resolve(String.format("%020d.log", 5)), StandardOpenOption.WRITE)) {
+            segment.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 48 + 20);
+        }
+
+        // When
+        try (MappedEventLog log = new MappedEventLog(directory, SEGMENT_BYTES)) {
+            List<CirculationEvent> next = createEvents(100, 1);
+            log.publish(next);
+
+            // Then
+            assertThat(next.get(0).getSequence()).isEqualTo(6L);
+            assertThat(log.read(0, 100)).extracting(CirculationEvent::getEventId)
+                    .containsExactly(1L, 2L, 3L, 4L, 5L, 100L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should refuse a directory another log has open")
+    void shouldLockDirectory() throws IOException {
+        try (MappedEventLog ignored = new MappedEventLog(directory, SEGMENT_BYTES)) {
+            // When & Then
+            assertThatThrownBy(() -> new MappedEventLog(directory, SEGMENT_BYTES))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Event log " + directory + " is already open");
+        }
+    }
+
+    // Helper methods
+    private List<CirculationEvent> createEvents(long firstId, int count) {
+        LocalDateTime occurredAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+        return LongStream.range(firstId, firstId + count)
+                .mapToObj(id -> new CirculationEvent(null, id,
+                        id % 2 == 0 ? CirculationEventType.RETURNED : CirculationEventType.BORROWED,
+                        id + 1000, id + 2000, occurredAt.plusSeconds(id)))
+                .toList();
+    }
+
+    private static List<Long> sequences(long first, int count) {
+        return LongStream.range(first, first + count).boxed().toList();
+    }
+}
@@ -1,8 +1,10 @@
 package com.kafka.librarynerdysoft.services;
+import com.kafka.librarynerdysoft.dto.CursorPage;
 import com.kafka.librarynerdysoft.dto.MemberCreatedRequest;
+import com.kafka.librarynerdysoft.dto.MemberResponse;
 import com.kafka.librarynerdysoft.entity.Member;
-import com.kafka.librarynerdysoft.repository.BorrowingRepository;
 import com.kafka.librarynerdysoft.repository.MemberRepository;
+import com.kafka.librarynerdysoft.service.CatalogVersions;
 import com.kafka.librarynerdysoft.service.MemberService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -31,7 +34,7 @@ class MemberServiceTest {
     private MemberRepository memberRepository;
 
     @Mock
-    private BorrowingRepository borrowingRepository;
+    private CatalogVersions catalogVersions;
 
     @InjectMocks
     private MemberService memberService;
@@ -46,25 +49,42 @@ class MemberServiceTest {
     }
 
     @Nested
-    @DisplayName("getAllMembers method")
-    class GetAllMembersTests {
+    @DisplayName("getMembers method")
+    class GetMembersTests {
 
         @Test
-        @DisplayName("Should return all members")
-        void shouldReturnAllMembers() {
+        @DisplayName("Should return a page of members after the cursor")
+        void shouldReturnMembersPage() {
             // Given
-            List<Member> members = Arrays.asList(
-                    testMember,
-                    createTestMember(2L, "Jane Doe")
+            List<MemberResponse> members = Arrays.asList(
+                    MemberResponse.of(testMember),
+                    MemberResponse.of(createTestMember(2L, "Jane Doe"))
             );
-            when(memberRepository.findAll()).thenReturn(members);
+            when(memberRepository.findPage(0L, Limit.of(CursorPage.DEFAULT_LIMIT + 1)))
+                    .thenReturn(members);
 
             // When
-            List<Member> result = memberService.getAllMembers();
+            CursorPage<MemberResponse> result = memberService.getMembers(null, CursorPage.DEFAULT_LIMIT);
 
             // Then
-            assertThat(result).hasSize(2);
-            assertThat(result).isEqualTo(members);
+            assertThat(result.getItems()).hasSize(2);
+            assertThat(result.getItems()).isEqualTo(members);
+            assertThat(result.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should cap the page size")
+        void shouldCapPageSize() {
+            // Given
+            when(memberRepository.findPage(10L, Limit.of(CursorPage.MAX_LIMIT + 1)))
+                    .thenReturn(List.of());
+
+            // When
+            CursorPage<MemberResponse> result = memberService.getMembers(10L, 100_000);
+
+            // Then
+            assertThat(result.getItems()).isEmpty();
+            assertThat(result.getNextCursor()).isNull();
         }
     }
 
@@ -184,43 +204,41 @@ class MemberServiceTest {
         @DisplayName("Should delete member when not borrowing books")
         void shouldDeleteMemberWhenNotBorrowingBooks() {
             // Given
-            when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
-            when(borrowingRepository.countByMember(testMember)).thenReturn(0L);
+            when(memberRepository.deleteIfNoActiveLoans(1L)).thenReturn(1);
 
             // When
             memberService.deleteMember(1L);
 
             // Then
-            verify(memberRepository).deleteById(1L);
+            verify(memberRepository).deleteIfNoActiveLoans(1L);
+            verify(memberRepository, never()).existsById(any());
+            verify(catalogVersions).membersChanged();
         }
 
         @Test
         @DisplayName("Should throw EntityNotFoundException when member not found for deletion")
         void shouldThrowExceptionWhenMemberNotFoundForDeletion() {
             // Given
-            when(memberRepository.findById(1L)).thenReturn(Optional.empty());
+            when(memberRepository.deleteIfNoActiveLoans(1L)).thenReturn(0);
+            when(memberRepository.existsById(1L)).thenReturn(false);
 
             // When & Then
             assertThatThrownBy(() -> memberService.deleteMember(1L))
                     .isInstanceOf(EntityNotFoundException.class)
                     .hasMessage("Member with id 1 not found");
-
-            verify(memberRepository, never()).deleteById(any());
         }
 
         @Test
         @DisplayName("Should throw RuntimeException when member is borrowing books")
         void shouldThrowExceptionWhenMemberIsBorrowingBooks() {
             // Given
-            when(memberRepository.findById(1L)).thenReturn(Optional.of(testMember));
-            when(borrowingRepository.countByMember(testMember)).thenReturn(1L);
+            when(memberRepository.deleteIfNoActiveLoans(1L)).thenReturn(0);
+            when(memberRepository.existsById(1L)).thenReturn(true);
 
             // When & Then
             assertThatThrownBy(() -> memberService.deleteMember(1L))
                     .isInstanceOf(RuntimeException.class)
                     .hasMessage("Member with id 1 is borrowing a book");
-
-            verify(memberRepository, never()).deleteById(any());
         }
     }
 
@@ -0,0 +1,10 @@
+-- H2 has no setval; same effect as the PostgreSQL migration for the legacy upgrade test
+create sequence if not exists book_seq start with 1 increment by 50;
+create sequence if not exists member_seq start with 1 increment by 50;
+create sequence if not exists book_copy_seq start with 1 increment by 50;
+create sequence if not exists borrowing_seq start with 1 increment by 50;
+
+alter sequence book_seq restart with (select coalesce(max(id) + 50, 1) from book);
+alter sequence member_seq restart with (select coalesce(max(id) + 50, 1) from member);
+alter sequence book_copy_seq restart with (select coalesce(max(id) + 50, 1) from book_copy);
+alter sequence borrowing_seq restart with (select coalesce(max(id) + 50, 1) from borrowing);
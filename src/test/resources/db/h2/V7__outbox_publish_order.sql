@@ -0,0 +1,4 @@
+-- H2 has no clock_timestamp(); same column as the PostgreSQL migration, ties are broken by id
+alter table circulation_outbox add column recorded_at timestamp(6) not null default localtimestamp(6);
+
+create index circulation_outbox_recorded_at_idx on circulation_outbox (recorded_at, id);